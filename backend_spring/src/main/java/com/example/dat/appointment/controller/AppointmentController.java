@@ -2,14 +2,18 @@ package com.example.dat.appointment.controller;
 
 
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSeriesRequest;
 import com.example.dat.appointment.service.AppointmentService;
+import com.example.dat.enums.AppointmentStatus;
 import com.example.dat.res.Response;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -25,9 +29,27 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.bookAppointment(appointmentDTO));
     }
 
+    @PostMapping("/series")
+    public ResponseEntity<Response<List<AppointmentDTO>>> bookAppointmentSeries(@RequestBody @Valid AppointmentSeriesRequest request){
+        return ResponseEntity.ok(appointmentService.bookAppointmentSeries(request));
+    }
+
     @GetMapping
-    public  ResponseEntity<Response<List<AppointmentDTO>>> getMyAppointments(){
-        return ResponseEntity.ok(appointmentService.getMyAppointments());
+    public  ResponseEntity<Response<List<AppointmentDTO>>> getMyAppointments(
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(appointmentService.getMyAppointments(status, from, to, cursor, size));
+    }
+
+    @GetMapping("/count")
+    public  ResponseEntity<Response<Long>> countMyAppointments(
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to){
+        return ResponseEntity.ok(appointmentService.countMyAppointments(status, from, to));
     }
 
     @PutMapping("/cancel/{appointmentId}")
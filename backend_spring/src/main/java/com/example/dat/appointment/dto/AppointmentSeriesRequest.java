@@ -0,0 +1,43 @@
+package com.example.dat.appointment.dto;
+
+import com.example.dat.enums.RecurrenceFrequency;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// recurrence rule: 'occurrences' appointments, every 'interval' days/weeks starting at 'startTime'
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AppointmentSeriesRequest {
+
+    @NotNull(message = "Doctor ID is required for booking.")
+    private Long doctorId;
+
+    @NotNull(message = "Start time is required for the first appointment.")
+    @Future(message = "Appointment must be scheduled for a future date and time.")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "Frequency is required.")
+    private RecurrenceFrequency frequency;
+
+    @Builder.Default
+    @Min(value = 1, message = "Interval must be at least 1.")
+    private int interval = 1;
+
+    @Min(value = 2, message = "A series needs at least 2 occurrences.")
+    private int occurrences;
+
+    private String purposeOfConsultation;
+
+    private String initialSymptoms;
+}
@@ -0,0 +1,7 @@
+package com.example.dat.appointment.dto;
+
+import java.time.LocalDateTime;
+
+// a start time at which the given doctor can still be booked
+public record BookableSlot(Long doctorId, LocalDateTime startTime) {
+}
@@ -0,0 +1,7 @@
+package com.example.dat.appointment.dto;
+
+import java.time.LocalDateTime;
+
+// lightweight row used to (re)build the in-memory schedule index, no entity loading
+public record ScheduledSlot(Long appointmentId, Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,10 @@
+package com.example.dat.appointment.dto;
+
+import com.example.dat.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// appointment touched since the last schedule index sync, SCHEDULED -> (re)add, anything else -> remove
+public record SlotChange(Long appointmentId, Long doctorId, LocalDateTime startTime, LocalDateTime endTime,
+                         AppointmentStatus status, LocalDateTime updatedAt) {
+}
@@ -18,8 +18,24 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "appointments")
+// everything AppointmentDTO / the notification mails touch, loaded in one joined SELECT
+@NamedEntityGraph(
+        name = Appointment.WITH_PARTICIPANTS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "doctor", subgraph = "doctor"),
+                @NamedAttributeNode(value = "patient", subgraph = "patient"),
+                @NamedAttributeNode("consultation")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user"))
+        }
+)
 public class Appointment {
 
+    public static final String WITH_PARTICIPANTS = "Appointment.withParticipants";
+
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,6 +52,14 @@ public class Appointment {
     @Enumerated(EnumType.STRING)
     private AppointmentStatus status;
 
+    // set once the upcoming-appointment reminder went out
+    @Column(nullable = false)
+    private boolean reminderSent;
+
+    // maintained by the DB (ON UPDATE CURRENT_TIMESTAMP), read by the schedule index sync
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
@@ -0,0 +1,23 @@
+package com.example.dat.appointment.mapper;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.doctor.mapper.DoctorMapper;
+import com.example.dat.patient.mapper.PatientMapper;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+@Mapper(componentModel = "spring", uses = {DoctorMapper.class, PatientMapper.class})
+public interface AppointmentMapper {
+
+    @Mapping(target = "doctorId", source = "doctor.id")
+    AppointmentDTO toDto(Appointment appointment);
+
+    // flat view without the doctor / patient graphs, e.g. for freshly booked series
+    @Named("summary")
+    @Mapping(target = "doctorId", source = "doctor.id")
+    @Mapping(target = "doctor", ignore = true)
+    @Mapping(target = "patient", ignore = true)
+    AppointmentDTO toSummaryDto(Appointment appointment);
+}
@@ -0,0 +1,69 @@
+package com.example.dat.appointment.repo;
+
+import com.example.dat.appointment.entity.Appointment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC batch insert for many appointments at once (series booking).
+ * IDENTITY ids disable Hibernate's insert batching, so this goes through JdbcTemplate:
+ * one round trip per batch instead of one per row. Joins the surrounding transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppointmentBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO appointments " +
+            "(start_time, end_time, meeting_link, purpose_of_consultation, initial_symptoms, status, doctor_id, patient_id, reminder_sent) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // inserts all rows and sets the generated ids back on the given appointments
+    public void insertAll(List<Appointment> appointments) {
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Appointment a = appointments.get(i);
+                        ps.setTimestamp(1, Timestamp.valueOf(a.getStartTime()));
+                        ps.setTimestamp(2, Timestamp.valueOf(a.getEndTime()));
+                        ps.setString(3, a.getMeetingLink());
+                        ps.setString(4, a.getPurposeOfConsultation());
+                        ps.setString(5, a.getInitialSymptoms());
+                        ps.setString(6, a.getStatus().name());
+                        ps.setLong(7, a.getDoctor().getId());
+                        ps.setLong(8, a.getPatient().getId());
+                        ps.setBoolean(9, a.isReminderSent());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return appointments.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < appointments.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            appointments.get(i).setId(((Number) id).longValue());
+        }
+    }
+}
@@ -1,22 +1,92 @@
 package com.example.dat.appointment.repo;
 
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.dto.SlotChange;
 import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.enums.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
 
 
 
-    //fetch appointment of the doctor
-    List<Appointment> findByDoctor_User_IdOrderByIdDesc(Long userId);
+    // cancel / complete: appointment + doctor/patient users in one statement
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    @Query("SELECT a FROM Appointment a WHERE a.id = :id")
+    Optional<Appointment> findWithParticipantsById(@Param("id") Long id);
 
-    //fetch appointment of the patient
-    List<Appointment> findByPatient_User_IdOrderByIdDesc(Long userId);
+    // keyset pages of a doctor's appointments, newest first: rows strictly after the cursor (startTime, id)
+    @Query("SELECT a FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to) " +
+            "AND (a.startTime < :cursorStart OR (a.startTime = :cursorStart AND a.id < :cursorId)) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findDoctorPage(
+            @Param("doctorId") Long doctorId,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    // same as findDoctorPage for the patient side
+    @Query("SELECT a FROM Appointment a " +
+            "WHERE a.patient.id = :patientId " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to) " +
+            "AND (a.startTime < :cursorStart OR (a.startTime = :cursorStart AND a.id < :cursorId)) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findPatientPage(
+            @Param("patientId") Long patientId,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(a) FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to)")
+    long countDoctorAppointments(
+            @Param("doctorId") Long doctorId,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query("SELECT COUNT(a) FROM Appointment a " +
+            "WHERE a.patient.id = :patientId " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to)")
+    long countPatientAppointments(
+            @Param("patientId") Long patientId,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 
     @Query("SELECT a FROM Appointment a " +
             "WHERE a.doctor.id = :doctorId " +
@@ -31,4 +101,67 @@ public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
             @Param("newEndTime") LocalDateTime newEndTime
     );
 
+    // used to build the in-memory schedule index at startup
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.status = 'SCHEDULED' AND a.endTime > :from")
+    List<ScheduledSlot> findScheduledSlotsEndingAfter(@Param("from") LocalDateTime from);
+
+    // incremental schedule index sync, served by idx_appointments_updated_at
+    @Query("SELECT new com.example.dat.appointment.dto.SlotChange(a.id, a.doctor.id, a.startTime, a.endTime, a.status, a.updatedAt) " +
+            "FROM Appointment a " +
+            "WHERE a.updatedAt > :since")
+    List<SlotChange> findSlotChangesSince(@Param("since") LocalDateTime since);
+
+    // sync watermark, on the DB clock like updated_at itself (null for an empty table)
+    @Query("SELECT MAX(a.updatedAt) FROM Appointment a")
+    LocalDateTime findLatestUpdatedAt();
+
+    // reminder wheel rebuild, served by idx_appointments_reminder (status, reminder_sent, start_time)
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.status = 'SCHEDULED' AND a.reminderSent = false AND a.startTime > :from AND a.startTime <= :until")
+    List<ScheduledSlot> findPendingRemindersStartingBetween(@Param("from") LocalDateTime from,
+                                                            @Param("until") LocalDateTime until);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    @Query("SELECT a FROM Appointment a WHERE a.id IN :ids")
+    List<Appointment> findWithParticipantsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // claims due reminders: rows another node is already sending are skipped, not waited for.
+    // Callers must mark the claimed ids as sent in the same transaction.
+    @Query(value = "SELECT id FROM appointments " +
+            "WHERE id IN (:ids) AND status = 'SCHEDULED' AND reminder_sent = 0 AND start_time > :now " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockPendingReminders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Appointment a SET a.reminderSent = true WHERE a.id IN :ids AND a.reminderSent = false")
+    int markRemindersSent(@Param("ids") Collection<Long> ids);
+
+    // past-due appointments still SCHEDULED, served by idx_appointments_status_end (status, end_time)
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.status = 'SCHEDULED' AND a.endTime < :cutoff " +
+            "ORDER BY a.endTime")
+    List<ScheduledSlot> findStaleScheduled(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // status guard keeps it safe against a concurrent complete / cancel
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = 'NO_SHOW' WHERE a.id IN :ids AND a.status = 'SCHEDULED'")
+    int markNoShow(@Param("ids") Collection<Long> ids);
+
+    // one range scan covering a whole series, overlaps are then checked in memory
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.status = 'SCHEDULED' " +
+            "AND a.startTime < :to AND a.endTime > :from " +
+            "ORDER BY a.startTime")
+    List<ScheduledSlot> findScheduledSlotsForDoctorBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
 }
@@ -0,0 +1,204 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.service.NotificationService;
+import com.example.dat.users.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends "your appointment is coming up" mails {@code lead-hours} before each SCHEDULED appointment.
+ *
+ * Pending reminders live in a hashed timing wheel, updated on book / cancel / complete. Only reminders
+ * due within the next {@code load-window-minutes} are kept in it: the window is loaded at startup and
+ * topped up periodically with an indexed range query (status, reminder_sent, start_time), so memory
+ * stays bounded no matter how far ahead appointments are booked. Due reminders are sent in batches.
+ *
+ * Every node has the reminder in its wheel, so each batch is claimed first (FOR UPDATE SKIP LOCKED,
+ * then reminder_sent = true) and the mails are queued only for the claimed rows, in the same
+ * transaction. Exactly one node queues each reminder, and a rollback un-claims it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AppointmentReminderScheduler {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy 'at' hh:mm a");
+
+    private final AppointmentRepo appointmentRepo;
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${appointment.reminder.lead-hours:24}")
+    private long leadHours;
+
+    @Value("${appointment.reminder.tick-ms:10000}")
+    private long tickMillis;
+
+    @Value("${appointment.reminder.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${appointment.reminder.batch-size:100}")
+    private int batchSize;
+
+    // must stay well above the top-up interval, a booking that misses one top-up is picked up by the next
+    @Value("${appointment.reminder.load-window-minutes:120}")
+    private long loadWindowMinutes;
+
+    private HashedTimingWheel<Long> wheel;
+
+    // reminders firing up to here are in the wheel, later ones wait for a top-up
+    private volatile long horizonMillis;
+    private Counter sentCounter;
+
+    @PostConstruct
+    void load() {
+        wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusMinutes(loadWindowMinutes);
+
+        // reminders missed while we were down still go out, as long as the appointment is ahead
+        List<ScheduledSlot> pending = appointmentRepo.findPendingRemindersStartingBetween(now, horizon.plusHours(leadHours));
+        pending.forEach(slot -> wheel.schedule(slot.appointmentId(), reminderTime(slot.startTime())));
+        horizonMillis = toMillis(horizon);
+
+        sentCounter = Counter.builder("appointment.reminders.sent").register(meterRegistry);
+        Gauge.builder("appointment.reminders.pending", wheel, HashedTimingWheel::size).register(meterRegistry);
+
+        log.info("Reminder wheel loaded {} pending reminders", pending.size());
+    }
+
+    public void schedule(Long appointmentId, LocalDateTime startTime) {
+        long fireAt = reminderTime(startTime);
+        // booked inside the reminder window -> the confirmation mail is reminder enough,
+        // beyond the loaded window -> a later top-up adds it
+        if (fireAt > System.currentTimeMillis() && fireAt <= horizonMillis) {
+            wheel.schedule(appointmentId, fireAt);
+        }
+    }
+
+    // slides the loaded window forward. Re-reads the whole not-yet-due window, schedule() is idempotent,
+    // so bookings that raced the previous top-up are not lost
+    @Scheduled(fixedDelayString = "${appointment.reminder.top-up-interval-ms:600000}")
+    public void topUp() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusMinutes(loadWindowMinutes);
+
+        List<ScheduledSlot> pending = appointmentRepo.findPendingRemindersStartingBetween(
+                now.plusHours(leadHours), horizon.plusHours(leadHours));
+        pending.forEach(slot -> wheel.schedule(slot.appointmentId(), reminderTime(slot.startTime())));
+        horizonMillis = toMillis(horizon);
+
+        log.debug("Reminder wheel topped up with {} reminders, {} pending", pending.size(), wheel.size());
+    }
+
+    public void cancel(Long appointmentId) {
+        wheel.cancel(appointmentId);
+    }
+
+    public void scheduleAfterCommit(Long appointmentId, LocalDateTime startTime) {
+        DoctorScheduleIndex.afterCommit(() -> schedule(appointmentId, startTime));
+    }
+
+    public void cancelAfterCommit(Long appointmentId) {
+        DoctorScheduleIndex.afterCommit(() -> cancel(appointmentId));
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.reminder.tick-ms:10000}")
+    public void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                int sent = transactionTemplate.execute(status -> sendBatch(batch));
+                if (sent > 0) {
+                    sentCounter.increment(sent);
+                    log.info("Sent reminders for {} appointments", sent);
+                }
+            } catch (Exception e) {
+                // put them back, next tick retries
+                log.error("Failed to send {} reminders: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                batch.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+
+    // runs in one transaction: claim, then queue mails for what this node claimed
+    private int sendBatch(List<Long> appointmentIds) {
+
+        List<Long> claimed = appointmentRepo.lockPendingReminders(appointmentIds, LocalDateTime.now());
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        appointmentRepo.markRemindersSent(claimed);
+
+        // one query for the claimed rows, participants fetched along
+        List<Appointment> appointments = appointmentRepo.findWithParticipantsByIdIn(claimed);
+        for (Appointment appointment : appointments) {
+            sendReminder(appointment);
+        }
+        return appointments.size();
+    }
+
+    private void sendReminder(Appointment appointment) {
+
+        User patientUser = appointment.getPatient().getUser();
+        User doctorUser = appointment.getDoctor().getUser();
+
+        Map<String, Object> baseVars = new HashMap<>();
+        baseVars.put("appointmentTime", appointment.getStartTime().format(FORMATTER));
+        baseVars.put("meetingLink", appointment.getMeetingLink());
+
+        Map<String, Object> patientVars = new HashMap<>(baseVars);
+        patientVars.put("recipientName", patientUser.getName());
+        patientVars.put("otherPartyName", "Dr. " + doctorUser.getName());
+
+        notificationService.sendEmail(NotificationDTO.builder()
+                .recipient(patientUser.getEmail())
+                .subject("DAT Health: Appointment Reminder")
+                .templateName("appointment-reminder")
+                .templateVariables(patientVars)
+                .build(), patientUser);
+
+        Map<String, Object> doctorVars = new HashMap<>(baseVars);
+        doctorVars.put("recipientName", doctorUser.getName());
+        doctorVars.put("otherPartyName", patientUser.getName());
+
+        notificationService.sendEmail(NotificationDTO.builder()
+                .recipient(doctorUser.getEmail())
+                .subject("DAT Health: Appointment Reminder")
+                .templateName("appointment-reminder")
+                .templateVariables(doctorVars)
+                .build(), doctorUser);
+    }
+
+    private long reminderTime(LocalDateTime startTime) {
+        return toMillis(startTime.minusHours(leadHours));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
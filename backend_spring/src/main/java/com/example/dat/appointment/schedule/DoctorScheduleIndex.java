@@ -0,0 +1,287 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.BookableSlot;
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.dto.SlotChange;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.enums.AppointmentStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.dat.appointment.schedule.DoctorTimeline.CELLS_PER_DAY;
+import static com.example.dat.appointment.schedule.DoctorTimeline.CELL_MINUTES;
+import static com.example.dat.appointment.schedule.DoctorTimeline.FREE_DAY;
+
+/**
+ * In-memory index of every doctor's upcoming SCHEDULED appointments.
+ *
+ * Loaded once at startup and kept in sync on book / cancel / complete, so conflict checks
+ * (including the 60-minute buffer) run in memory. Changes made on other nodes (and by the
+ * bulk sweepers) are pulled in every few seconds through appointments.updated_at.
+ * It is only a fast first filter: the DB query in bookAppointment stays the authoritative check.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DoctorScheduleIndex {
+
+    // mirrors bookAppointment: 60 minute appointments, 60 minute buffer before each one
+    public static final int SLOT_MINUTES = 60;
+    public static final int BUFFER_MINUTES = 60;
+
+    // watermark for an empty appointments table
+    private static final LocalDateTime NO_CHANGES = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final AppointmentRepo appointmentRepo;
+
+    private final ConcurrentHashMap<Long, DoctorTimeline> timelines = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    // newest updated_at seen so far. Only ever taken from the DB, updated_at is filled in by MySQL's
+    // clock / time zone, comparing it with this JVM's clock could silently skip changes
+    private volatile LocalDateTime lastSync;
+
+    // below this many doctors a plain loop beats the fork/join overhead
+    @Value("${appointment.availability.parallel-threshold:64}")
+    private int parallelThreshold = 64;
+
+    @PostConstruct
+    void load() {
+        // read before the snapshot, anything changed meanwhile is picked up by the first sync
+        LocalDateTime latest = appointmentRepo.findLatestUpdatedAt();
+        lastSync = latest != null ? latest : NO_CHANGES;
+
+        int count = 0;
+        for (ScheduledSlot slot : appointmentRepo.findScheduledSlotsEndingAfter(LocalDateTime.now())) {
+            add(slot.appointmentId(), slot.doctorId(), slot.startTime(), slot.endTime());
+            count++;
+        }
+        loaded = true;
+        log.info("Schedule index loaded {} appointments for {} doctors", count, timelines.size());
+    }
+
+    // books / cancels / completes from other nodes, the index is only as stale as this interval
+    @Scheduled(fixedDelayString = "${appointment.index.sync-interval-ms:5000}")
+    public void syncFromDatabase() {
+        LocalDateTime since = lastSync;
+
+        // overlap a little so rows committed late with an older updated_at are not missed, add/remove are idempotent
+        List<SlotChange> changes = appointmentRepo.findSlotChangesSince(since.minusMinutes(1));
+        apply(changes, toMinutes(LocalDateTime.now()));
+        lastSync = latestUpdate(changes, since);
+
+        log.debug("Schedule index synced {} changed appointments", changes.size());
+    }
+
+    static LocalDateTime latestUpdate(List<SlotChange> changes, LocalDateTime current) {
+        LocalDateTime latest = current;
+        for (SlotChange change : changes) {
+            if (change.updatedAt() != null && change.updatedAt().isAfter(latest)) {
+                latest = change.updatedAt();
+            }
+        }
+        return latest;
+    }
+
+    void apply(List<SlotChange> changes, long nowMinutes) {
+        for (SlotChange change : changes) {
+            if (change.status() == AppointmentStatus.SCHEDULED && toMinutes(change.endTime()) > nowMinutes) {
+                add(change.appointmentId(), change.doctorId(), change.startTime(), change.endTime());
+            } else {
+                remove(change.appointmentId(), change.doctorId());
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // same semantics as AppointmentRepo.findConflictingAppointments
+    public boolean hasConflict(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        DoctorTimeline timeline = timelines.get(doctorId);
+        return timeline != null && timeline.overlaps(toMinutes(from), toMinutes(to));
+    }
+
+    /**
+     * Start times (on the 15-minute grid, within [from, to)) at which bookAppointment would
+     * accept a booking for this doctor, earliest first, at most {@code limit} of them.
+     * Works purely on the cached day bitmaps, no DB access.
+     */
+    public List<LocalDateTime> bookableStarts(Long doctorId, LocalDateTime from, LocalDateTime to, int limit) {
+        return bookableStarts(doctorId, from, to, limit, 1);
+    }
+
+    // same scan, but consecutive starts are at least gapCells apart
+    private List<LocalDateTime> bookableStarts(Long doctorId, LocalDateTime from, LocalDateTime to, int limit, int gapCells) {
+
+        List<LocalDateTime> starts = new ArrayList<>();
+
+        long firstStartCell = Math.floorDiv(toMinutes(from) + CELL_MINUTES - 1, CELL_MINUTES);
+        long endCell = Math.floorDiv(toMinutes(to) + CELL_MINUTES - 1, CELL_MINUTES);
+        if (firstStartCell >= endCell || limit <= 0) {
+            return starts;
+        }
+
+        // a start cell c is bookable when cells [c - buffer, c + slot) are all free
+        int before = BUFFER_MINUTES / CELL_MINUTES;
+        int needed = before + SLOT_MINUTES / CELL_MINUTES;
+
+        DoctorTimeline timeline = timelines.get(doctorId);
+
+        long scanFrom = firstStartCell - before;
+        long scanTo = endCell + needed - before - 1;
+
+        long currentDay = Long.MIN_VALUE;
+        long[] dayCells = FREE_DAY;
+        int freeRun = 0;
+        long nextAllowedCell = Long.MIN_VALUE;
+
+        for (long cell = scanFrom; cell < scanTo; cell++) {
+            long day = Math.floorDiv(cell, CELLS_PER_DAY);
+            if (day != currentDay) {
+                currentDay = day;
+                dayCells = timeline == null ? FREE_DAY : timeline.busyCells(day);
+            }
+
+            int i = (int) (cell - day * CELLS_PER_DAY);
+            boolean busy = (dayCells[i >>> 6] & (1L << (i & 63))) != 0;
+            freeRun = busy ? 0 : freeRun + 1;
+
+            long startCell = cell - needed + 1 + before;
+            if (freeRun >= needed && startCell >= nextAllowedCell) {
+                starts.add(fromMinutes(startCell * CELL_MINUTES));
+                nextAllowedCell = startCell + gapCells;
+                if (starts.size() >= limit) {
+                    break;
+                }
+            }
+        }
+
+        return starts;
+    }
+
+    /**
+     * The {@code limit} earliest bookable starts across several doctors.
+     * Each doctor contributes at most {@code limit} non-overlapping starts (one per slot length,
+     * so 9:00, 10:00, ... rather than 9:00, 9:15, ...), computed in parallel since the scans are
+     * independent and CPU only. The sorted per-doctor lists are then k-way merged with a heap.
+     */
+    public List<BookableSlot> earliestBookable(Collection<Long> doctorIds, LocalDateTime from, LocalDateTime to, int limit) {
+
+        List<DoctorStarts> perDoctor = (doctorIds.size() >= parallelThreshold
+                ? doctorIds.parallelStream()
+                : doctorIds.stream())
+                .map(id -> new DoctorStarts(id, bookableStarts(id, from, to, limit, SLOT_MINUTES / CELL_MINUTES)))
+                .filter(d -> !d.starts().isEmpty())
+                .toList();
+
+        // heap holds one cursor per doctor, ordered by its next start (ties -> lower doctor id)
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, perDoctor.size()),
+                Comparator.<int[], LocalDateTime>comparing(c -> perDoctor.get(c[0]).starts().get(c[1]))
+                        .thenComparing(c -> perDoctor.get(c[0]).doctorId()));
+
+        for (int i = 0; i < perDoctor.size(); i++) {
+            heap.add(new int[]{i, 0});
+        }
+
+        List<BookableSlot> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heap.isEmpty()) {
+            int[] cursor = heap.poll();
+            DoctorStarts doctor = perDoctor.get(cursor[0]);
+            merged.add(new BookableSlot(doctor.doctorId(), doctor.starts().get(cursor[1])));
+
+            if (++cursor[1] < doctor.starts().size()) {
+                heap.add(cursor);
+            }
+        }
+
+        return merged;
+    }
+
+    private record DoctorStarts(Long doctorId, List<LocalDateTime> starts) {
+    }
+
+    public void add(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end) {
+        long from = toMinutes(start);
+        long to = toMinutes(end);
+
+        // compute() keeps this atomic with the empty-timeline cleanup in evictPast()
+        timelines.compute(doctorId, (id, timeline) -> {
+            DoctorTimeline t = timeline != null ? timeline : new DoctorTimeline();
+            t.add(appointmentId, from, to);
+            return t;
+        });
+    }
+
+    public void remove(Long appointmentId, Long doctorId) {
+        DoctorTimeline timeline = timelines.get(doctorId);
+        if (timeline != null) {
+            timeline.remove(appointmentId);
+        }
+    }
+
+    // index changes must only become visible once the DB change is committed
+    public void addAfterCommit(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> add(appointmentId, doctorId, start, end));
+    }
+
+    public void removeAfterCommit(Long appointmentId, Long doctorId) {
+        afterCommit(() -> remove(appointmentId, doctorId));
+    }
+
+    // past appointments can't conflict with anything bookable, keep memory bounded
+    @Scheduled(fixedDelayString = "${appointment.index.cleanup-interval-ms:3600000}")
+    public void evictPast() {
+        long now = toMinutes(LocalDateTime.now());
+        int removed = 0;
+        for (DoctorTimeline timeline : timelines.values()) {
+            removed += timeline.removeEndedBefore(now);
+        }
+        for (Long doctorId : timelines.keySet()) {
+            timelines.computeIfPresent(doctorId, (id, t) -> t.size() == 0 ? null : t);
+        }
+        log.debug("Schedule index evicted {} past appointments", removed);
+    }
+
+    DoctorTimeline timeline(Long doctorId) {
+        return timelines.get(doctorId);
+    }
+
+    static long toMinutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.dat.appointment.schedule;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Sorted set of one doctor's SCHEDULED appointments, times in epoch minutes.
+ * Overlap lookups only look at the slots starting in [from - longest slot, to),
+ * so a check is O(log n) plus the handful of neighbours in that window.
+ *
+ * Busy days are also cached as bitmaps of 15-minute cells (96 bits = two longs per day)
+ * for the availability scans; a day's bitmap is dropped whenever a slot touching it changes.
+ */
+final class DoctorTimeline {
+
+    record Slot(long appointmentId, long start, long end) {
+    }
+
+    static final int CELL_MINUTES = 15;
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int CELLS_PER_DAY = MINUTES_PER_DAY / CELL_MINUTES;
+
+    // shared bitmap for days without any appointment, never cached per day
+    static final long[] FREE_DAY = new long[2];
+
+    private static final Comparator<Slot> ORDER =
+            Comparator.comparingLong(Slot::start).thenComparingLong(Slot::appointmentId);
+
+    private final TreeSet<Slot> slots = new TreeSet<>(ORDER);
+    private final Map<Long, Slot> byId = new HashMap<>();
+    private final Map<Long, long[]> busyCellsByDay = new HashMap<>();
+
+    private long longestSlot;
+
+    synchronized void add(long appointmentId, long start, long end) {
+        remove(appointmentId);
+
+        Slot slot = new Slot(appointmentId, start, end);
+        slots.add(slot);
+        byId.put(appointmentId, slot);
+        longestSlot = Math.max(longestSlot, end - start);
+        invalidateDays(start, end);
+    }
+
+    synchronized boolean remove(long appointmentId) {
+        Slot slot = byId.remove(appointmentId);
+        if (slot == null) {
+            return false;
+        }
+        invalidateDays(slot.start(), slot.end());
+        return slots.remove(slot);
+    }
+
+    // same semantics as AppointmentRepo.findConflictingAppointments: start < to AND end > from
+    synchronized boolean overlaps(long from, long to) {
+        for (Slot slot : window(from, to)) {
+            if (slot.end() > from) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // visits every slot overlapping [from, to)
+    synchronized void forEachOverlapping(long from, long to, SlotConsumer consumer) {
+        for (Slot slot : window(from, to)) {
+            if (slot.end() > from) {
+                consumer.accept(slot.start(), slot.end());
+            }
+        }
+    }
+
+    synchronized int removeEndedBefore(long time) {
+        int removed = 0;
+        Iterator<Slot> it = slots.iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next();
+            if (slot.start() >= time) {
+                break;
+            }
+            if (slot.end() <= time) {
+                it.remove();
+                byId.remove(slot.appointmentId());
+                removed++;
+            }
+        }
+        long today = Math.floorDiv(time, MINUTES_PER_DAY);
+        busyCellsByDay.keySet().removeIf(day -> day < today);
+        return removed;
+    }
+
+    /**
+     * Busy 15-minute cells of one day (epoch day), bit i = [i*15, i*15+15) is taken.
+     * The returned array must not be modified.
+     */
+    synchronized long[] busyCells(long epochDay) {
+        long[] cached = busyCellsByDay.get(epochDay);
+        if (cached != null) {
+            return cached;
+        }
+
+        long dayStart = epochDay * MINUTES_PER_DAY;
+        long dayEnd = dayStart + MINUTES_PER_DAY;
+
+        long[] cells = new long[2];
+        boolean busy = false;
+
+        for (Slot slot : window(dayStart, dayEnd)) {
+            if (slot.end() <= dayStart) {
+                continue;
+            }
+            int first = (int) ((Math.max(slot.start(), dayStart) - dayStart) / CELL_MINUTES);
+            int last = (int) ((Math.min(slot.end(), dayEnd) - dayStart + CELL_MINUTES - 1) / CELL_MINUTES);
+            for (int cell = first; cell < last; cell++) {
+                cells[cell >>> 6] |= 1L << (cell & 63);
+            }
+            busy = true;
+        }
+
+        // only busy days are cached, so memory stays proportional to the appointments
+        if (!busy) {
+            return FREE_DAY;
+        }
+        busyCellsByDay.put(epochDay, cells);
+        return cells;
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    private void invalidateDays(long start, long end) {
+        long firstDay = Math.floorDiv(start, MINUTES_PER_DAY);
+        long lastDay = Math.floorDiv(Math.max(start, end - 1), MINUTES_PER_DAY);
+        for (long day = firstDay; day <= lastDay; day++) {
+            busyCellsByDay.remove(day);
+        }
+    }
+
+    private NavigableSet<Slot> window(long from, long to) {
+        if (from >= to) {
+            return Collections.emptyNavigableSet();
+        }
+        Slot lower = new Slot(Long.MIN_VALUE, from - longestSlot, 0);
+        Slot upper = new Slot(Long.MIN_VALUE, to, 0);
+        return slots.subSet(lower, true, upper, false);
+    }
+
+    @FunctionalInterface
+    interface SlotConsumer {
+        void accept(long start, long end);
+    }
+}
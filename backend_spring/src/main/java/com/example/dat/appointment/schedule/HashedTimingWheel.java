@@ -0,0 +1,83 @@
+package com.example.dat.appointment.schedule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: timers are hashed by deadline tick into a fixed ring of buckets.
+ * Scheduling and cancelling are O(1); advancing only looks at the buckets of the ticks that
+ * passed, and timers further away than one revolution simply stay put until their round comes.
+ */
+final class HashedTimingWheel<K> {
+
+    private record Timer<K>(K key, long deadlineTick, int bucket) {
+    }
+
+    private final long tickMillis;
+    private final List<Map<K, Timer<K>>> buckets;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+
+    // first tick that has not been processed yet
+    private long currentTick;
+
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    // (re)schedules the key; deadlines in the past fire on the next advance
+    synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick);
+        int bucket = (int) Math.floorMod(tick, (long) buckets.size());
+
+        Timer<K> timer = new Timer<>(key, tick, bucket);
+        buckets.get(bucket).put(key, timer);
+        timers.put(key, timer);
+    }
+
+    synchronized boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        buckets.get(timer.bucket()).remove(key);
+        return true;
+    }
+
+    // removes and returns every key whose deadline is at or before now
+    synchronized List<K> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        List<K> expired = new ArrayList<>();
+
+        // after a long pause one pass over every bucket is enough
+        long lastTick = Math.min(nowTick, currentTick + buckets.size() - 1);
+
+        for (long tick = currentTick; tick <= lastTick; tick++) {
+            Iterator<Timer<K>> it = buckets.get((int) Math.floorMod(tick, (long) buckets.size())).values().iterator();
+            while (it.hasNext()) {
+                Timer<K> timer = it.next();
+                if (timer.deadlineTick() <= nowTick) {
+                    it.remove();
+                    timers.remove(timer.key());
+                    expired.add(timer.key());
+                }
+            }
+        }
+
+        currentTick = Math.max(currentTick, nowTick + 1);
+        return expired;
+    }
+
+    synchronized int size() {
+        return timers.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.enums.RecurrenceFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure helpers behind bookAppointmentSeries: expanding the recurrence rule and checking
+ * every occurrence against the doctor's existing slots, with the same 60-minute slot and
+ * 60-minute buffer as a single booking. No DB access, so it is unit tested on its own.
+ */
+public final class SeriesPlanner {
+
+    private SeriesPlanner() {
+    }
+
+    // occurrence start times: 'occurrences' of them, every 'interval' days / weeks from 'start'
+    public static List<LocalDateTime> expand(LocalDateTime start, RecurrenceFrequency frequency, int interval, int occurrences) {
+        List<LocalDateTime> starts = new ArrayList<>(occurrences);
+        LocalDateTime next = start;
+        for (int i = 0; i < occurrences; i++) {
+            starts.add(next);
+            next = frequency == RecurrenceFrequency.DAILY
+                    ? next.plusDays(interval)
+                    : next.plusWeeks(interval);
+        }
+        return starts;
+    }
+
+    /**
+     * Occurrences that would clash with an existing slot, i.e. an existing slot overlaps
+     * [start - buffer, start + slot). {@code existing} must be sorted by start time
+     * (findScheduledSlotsForDoctorBetween orders it that way).
+     */
+    public static List<LocalDateTime> conflicts(List<LocalDateTime> starts, List<ScheduledSlot> existing) {
+        List<LocalDateTime> conflicting = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            LocalDateTime checkStart = start.minusMinutes(DoctorScheduleIndex.BUFFER_MINUTES);
+            LocalDateTime endTime = start.plusMinutes(DoctorScheduleIndex.SLOT_MINUTES);
+
+            // nothing starting at or after endTime can overlap
+            for (ScheduledSlot slot : existing) {
+                if (!slot.startTime().isBefore(endTime)) {
+                    break;
+                }
+                if (slot.endTime().isAfter(checkStart)) {
+                    conflicting.add(start);
+                    break;
+                }
+            }
+        }
+        return conflicting;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves appointments nobody completed or cancelled to NO_SHOW once they are over.
+ * Works in chunks: select a page of ids (status, end_time index), then one bulk UPDATE per page,
+ * each in its own short transaction, so a large backlog never holds long locks.
+ */
+@Component
+@Slf4j
+public class StaleAppointmentSweeper {
+
+    private final AppointmentRepo appointmentRepo;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final AppointmentReminderScheduler appointmentReminderScheduler;
+
+    private final int chunkSize;
+    private final long graceMinutes;
+
+    private final Timer runTimer;
+    private final DistributionSummary rowsPerRun;
+
+    public StaleAppointmentSweeper(AppointmentRepo appointmentRepo,
+                                   DoctorScheduleIndex doctorScheduleIndex,
+                                   AppointmentReminderScheduler appointmentReminderScheduler,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${appointment.sweeper.chunk-size:500}") int chunkSize,
+                                   @Value("${appointment.sweeper.grace-minutes:60}") long graceMinutes) {
+
+        this.appointmentRepo = appointmentRepo;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.appointmentReminderScheduler = appointmentReminderScheduler;
+        this.chunkSize = chunkSize;
+        this.graceMinutes = graceMinutes;
+
+        this.runTimer = Timer.builder("appointment.sweeper.duration").register(meterRegistry);
+        this.rowsPerRun = DistributionSummary.builder("appointment.sweeper.rows")
+                .description("appointments moved to NO_SHOW per sweeper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.sweeper.interval-ms:300000}")
+    public void sweep() {
+        long started = System.nanoTime();
+        int touched = 0;
+
+        // fixed cutoff for the whole run so the loop always terminates
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+
+        try {
+            while (true) {
+                List<ScheduledSlot> stale = appointmentRepo.findStaleScheduled(cutoff, PageRequest.ofSize(chunkSize));
+                if (stale.isEmpty()) {
+                    break;
+                }
+
+                touched += appointmentRepo.markNoShow(stale.stream().map(ScheduledSlot::appointmentId).toList());
+
+                for (ScheduledSlot slot : stale) {
+                    doctorScheduleIndex.remove(slot.appointmentId(), slot.doctorId());
+                    appointmentReminderScheduler.cancel(slot.appointmentId());
+                }
+
+                if (stale.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(Duration.ofNanos(elapsed));
+            rowsPerRun.record(touched);
+
+            if (touched > 0) {
+                log.info("Sweeper marked {} appointments as NO_SHOW in {} ms", touched, elapsed / 1_000_000);
+            }
+        }
+    }
+}
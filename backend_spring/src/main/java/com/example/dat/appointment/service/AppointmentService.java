@@ -1,15 +1,23 @@
 package com.example.dat.appointment.service;
 
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSeriesRequest;
+import com.example.dat.enums.AppointmentStatus;
 import com.example.dat.res.Response;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AppointmentService {
 
     Response<AppointmentDTO> bookAppointment(AppointmentDTO appointmentDTO);
 
-    Response<List<AppointmentDTO>> getMyAppointments();
+    Response<List<AppointmentDTO>> bookAppointmentSeries(AppointmentSeriesRequest request);
+
+    Response<List<AppointmentDTO>> getMyAppointments(AppointmentStatus status, LocalDateTime from, LocalDateTime to,
+                                                     String cursor, int size);
+
+    Response<Long> countMyAppointments(AppointmentStatus status, LocalDateTime from, LocalDateTime to);
 
     Response<AppointmentDTO> cancelAppointment(Long appointmentId);
 
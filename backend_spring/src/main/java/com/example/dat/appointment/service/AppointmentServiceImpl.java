@@ -1,32 +1,46 @@
 package com.example.dat.appointment.service;
 
 
+import com.example.dat.appointment.dto.AppointmentCursor;
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSeriesRequest;
+import com.example.dat.appointment.dto.ScheduledSlot;
 import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.mapper.AppointmentMapper;
+import com.example.dat.appointment.repo.AppointmentBatchWriter;
 import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.appointment.schedule.AppointmentReminderScheduler;
+import com.example.dat.appointment.schedule.DoctorBookingLocks;
+import com.example.dat.appointment.schedule.DoctorScheduleIndex;
+import com.example.dat.appointment.schedule.SeriesPlanner;
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.doctor.repo.DoctorRepo;
 import com.example.dat.enums.AppointmentStatus;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
-import com.example.dat.notification.dto.NotificationDTO;
-import com.example.dat.notification.service.NotificationService;
+import com.example.dat.exceptions.TooManyRequestsException;
+import com.example.dat.outbox.event.AppointmentBooked;
+import com.example.dat.outbox.event.AppointmentCancelled;
+import com.example.dat.outbox.event.AppointmentSeriesBooked;
+import com.example.dat.outbox.service.OutboxPublisher;
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.patient.repo.PatientRepo;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,9 +50,23 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final AppointmentRepo appointmentRepo;
     private final PatientRepo patientRepo;
     private final DoctorRepo doctorRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
-    private final NotificationService notificationService;
+    private final CurrentUserContext currentUserContext;
+    private final AppointmentMapper appointmentMapper;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final DoctorBookingLocks doctorBookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentBatchWriter appointmentBatchWriter;
+    private final AppointmentReminderScheduler appointmentReminderScheduler;
+    private final OutboxPublisher outboxPublisher;
+
+    @Value("${appointment.booking.lock-timeout-ms:3000}")
+    private long bookingLockTimeoutMillis;
+
+    @Value("${appointment.listing.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${appointment.series.max-occurrences:26}")
+    private int maxSeriesOccurrences;
 
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy 'at' hh:mm a");
@@ -47,16 +75,54 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     public Response<AppointmentDTO> bookAppointment(AppointmentDTO appointmentDTO) {
 
-        User currentUser = userService.getCurrentUser();
+        if (appointmentDTO.getDoctorId() == null) {
+            throw new BadRequestException("Doctor is required.");
+        }
 
-        // 1. Get the patient initiating the booking
-        Patient patient = patientRepo.findByUser(currentUser)
-                .orElseThrow(() -> new NotFoundException("Patient profile required for booking."));
+        Long patientUserId = currentUserContext.getUserId();
 
-        // 2. Get the target doctor
-        Doctor doctor = doctorRepo.findById(appointmentDTO.getDoctorId())
+        // Check + insert must be atomic per doctor. The local stripe lock keeps same-doctor
+        // requests from queuing on the DB row lock, the row lock covers other instances.
+        // The lock is held until the transaction has committed.
+        ReentrantLock lock = doctorBookingLocks.forDoctor(appointmentDTO.getDoctorId());
+        acquireBookingLock(lock);
+
+        try {
+            transactionTemplate.execute(status -> createAppointment(appointmentDTO, patientUserId));
+        } finally {
+            lock.unlock();
+        }
+
+        return Response.<AppointmentDTO>builder()
+                .statusCode(200)
+                .message("Appointment booked successfully.")
+                .build();
+    }
+
+    private void acquireBookingLock(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(bookingLockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TooManyRequestsException("Too many bookings for this doctor right now, please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for booking lock", e);
+        }
+    }
+
+    // package-private so the row lock can be tested without the stripe lock in front of it
+    Appointment createAppointment(AppointmentDTO appointmentDTO, Long patientUserId) {
+
+        // 1. Get the target doctor, row-locked until commit. Must be the first read: under MySQL's
+        // REPEATABLE READ the snapshot is taken at the first plain read, and the conflict check below
+        // has to see bookings committed by whoever held the lock before us
+        Doctor doctor = doctorRepo.findByIdForUpdate(appointmentDTO.getDoctorId())
                 .orElseThrow(() -> new NotFoundException("Doctor not found."));
 
+        // 2. Get the patient initiating the booking
+        Patient patient = patientRepo.findByUserId(patientUserId)
+                .orElseThrow(() -> new NotFoundException("Patient profile required for booking."));
+
 
         // --- START: VALIDATION LOGIC ---
         // Define the proposed time slot and the end time
@@ -75,6 +141,11 @@ public class AppointmentServiceImpl implements AppointmentService {
         // We only need to check for existing appointments whose END TIME overlaps with
         // the proposed start time, OR whose START TIME overlaps with the proposed end time.
 
+        // Fast in-memory rejection first, the DB query below stays the authoritative check.
+        if (doctorScheduleIndex.hasConflict(doctor.getId(), checkStart, endTime)) {
+            throw new BadRequestException("Doctor is not available at the requested time. Please check their schedule.");
+        }
+
         List<Appointment> conflicts = appointmentRepo.findConflictingAppointments(
                 doctor.getId(),
                 checkStart, // Check for conflicts from 1 hour before the proposed start
@@ -86,16 +157,8 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
 
-        // 4a. Generate a unique, random string for the room name.
-        //    (Your existing code is good for this)
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String uniqueRoomName = "dat-" + uuid.substring(0, 10);
-
-
-        // 4b. Use the public Jitsi Meet domain with your unique room name
-        String meetingLink = "https://meet.jit.si/" + uniqueRoomName;
-
-        log.info("Generated Jitsi meeting link: {}", meetingLink);
+        // 4. Unique Jitsi room for this appointment
+        String meetingLink = newMeetingLink();
 
 
         // 5. Build and Save Appointment
@@ -111,84 +174,204 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .build();
 
         Appointment savedAppointment = appointmentRepo.save(appointment);
+        doctorScheduleIndex.addAfterCommit(savedAppointment.getId(), doctor.getId(),
+                savedAppointment.getStartTime(), savedAppointment.getEndTime());
+        appointmentReminderScheduler.scheduleAfterCommit(savedAppointment.getId(), savedAppointment.getStartTime());
 
-        sendAppointmentConfirmation(savedAppointment);
+        // confirmation mails go out from the outbox once this commits
+        outboxPublisher.publish(new AppointmentBooked(savedAppointment.getId()));
 
-        return Response.<AppointmentDTO>builder()
-                .statusCode(200)
-                .message("Appointment booked successfully.")
-                .build();
+        return savedAppointment;
+    }
+
+
+    private String newMeetingLink() {
 
+        // Generate a unique, random string for the room name.
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        String uniqueRoomName = "dat-" + uuid.substring(0, 10);
 
+        // Use the public Jitsi Meet domain with your unique room name
+        String meetingLink = "https://meet.jit.si/" + uniqueRoomName;
+
+        log.info("Generated Jitsi meeting link: {}", meetingLink);
+        return meetingLink;
     }
 
 
     @Override
-    public Response<List<AppointmentDTO>> getMyAppointments() {
+    public Response<List<AppointmentDTO>> bookAppointmentSeries(AppointmentSeriesRequest request) {
 
-        User user = userService.getCurrentUser();
+        if (request.getOccurrences() > maxSeriesOccurrences) {
+            throw new BadRequestException("A series can have at most " + maxSeriesOccurrences + " appointments.");
+        }
 
-        Long userId = user.getId();
+        List<LocalDateTime> starts = SeriesPlanner.expand(
+                request.getStartTime(), request.getFrequency(), request.getInterval(), request.getOccurrences());
 
-        List<Appointment> appointments;
+        // same rule as single bookings, checking the first one covers all of them
+        if (starts.get(0).isBefore(LocalDateTime.now().plusHours(1))) {
+            throw new BadRequestException("Appointments must be booked at least 1 hour in advance.");
+        }
 
-        // Check for "DOCTOR" role
-        boolean isDoctor = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equals("DOCTOR"));
+        Long patientUserId = currentUserContext.getUserId();
 
-        if (isDoctor) {
-            // 1. Check for Doctor profile existence (required to throw the correct exception)
-            doctorRepo.findByUser(user)
-                    .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
+        // same per-doctor locking as bookAppointment, the whole series is one transaction
+        ReentrantLock lock = doctorBookingLocks.forDoctor(request.getDoctorId());
+        acquireBookingLock(lock);
 
-            // 2. Efficiently fetch appointments of the Doctor
-            appointments = appointmentRepo.findByDoctor_User_IdOrderByIdDesc(userId);
+        List<Appointment> booked;
+        try {
+            booked = transactionTemplate.execute(status -> createSeries(request, starts, patientUserId));
+        } finally {
+            lock.unlock();
+        }
 
-        } else {
+        List<AppointmentDTO> dtos = booked.stream()
+                .map(appointmentMapper::toSummaryDto)
+                .toList();
+
+        return Response.<List<AppointmentDTO>>builder()
+                .statusCode(200)
+                .message(booked.size() + " appointments booked successfully.")
+                .data(dtos)
+                .build();
+    }
+
+    private List<Appointment> createSeries(AppointmentSeriesRequest request, List<LocalDateTime> starts, Long patientUserId) {
+
+        // lock first, same snapshot reason as createAppointment
+        Doctor doctor = doctorRepo.findByIdForUpdate(request.getDoctorId())
+                .orElseThrow(() -> new NotFoundException("Doctor not found."));
+
+        Patient patient = patientRepo.findByUserId(patientUserId)
+                .orElseThrow(() -> new NotFoundException("Patient profile required for booking."));
+
+        // one range scan for the whole series (incl. the 1h buffer before the first one)
+        List<ScheduledSlot> existing = appointmentRepo.findScheduledSlotsForDoctorBetween(
+                doctor.getId(),
+                starts.get(0).minusMinutes(60),
+                starts.get(starts.size() - 1).plusMinutes(60)
+        );
+
+        List<LocalDateTime> unavailable = SeriesPlanner.conflicts(starts, existing);
+        if (!unavailable.isEmpty()) {
+            throw new BadRequestException("Doctor is not available on: " + unavailable.stream()
+                    .map(FORMATTER::format)
+                    .collect(Collectors.joining("; ")));
+        }
+
+        List<Appointment> appointments = starts.stream()
+                .map(start -> Appointment.builder()
+                        .startTime(start)
+                        .endTime(start.plusMinutes(60)) // Assuming 60-min slot
+                        .meetingLink(newMeetingLink())
+                        .initialSymptoms(request.getInitialSymptoms())
+                        .purposeOfConsultation(request.getPurposeOfConsultation())
+                        .status(AppointmentStatus.SCHEDULED)
+                        .doctor(doctor)
+                        .patient(patient)
+                        .build())
+                .toList();
+
+        appointmentBatchWriter.insertAll(appointments);
+
+        for (Appointment a : appointments) {
+            doctorScheduleIndex.addAfterCommit(a.getId(), doctor.getId(), a.getStartTime(), a.getEndTime());
+            appointmentReminderScheduler.scheduleAfterCommit(a.getId(), a.getStartTime());
+        }
+
+        // one mail per party for the whole series instead of two per appointment
+        outboxPublisher.publish(new AppointmentSeriesBooked(appointments.stream().map(Appointment::getId).toList()));
+
+        return appointments;
+    }
+
+    @Override
+    public Response<List<AppointmentDTO>> getMyAppointments(AppointmentStatus status, LocalDateTime from, LocalDateTime to,
+                                                            String cursor, int size) {
+
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("size must be between 1 and " + maxPageSize + ".");
+        }
+
+        AppointmentCursor position = AppointmentCursor.decode(cursor);
+
+        // one extra row tells us whether there is a next page, no count query needed
+        PageRequest page = PageRequest.ofSize(size + 1);
 
-            // 1. Check for Patient profile existence
-            patientRepo.findByUser(user)
-                    .orElseThrow(() -> new NotFoundException("Patient profile not found."));
+        List<Appointment> appointments;
+
+        // Check for "DOCTOR" role
+        if (currentUserContext.hasRole("DOCTOR")) {
+            appointments = appointmentRepo.findDoctorPage(currentUserContext.getDoctorId(),
+                    status, from, to, position.startTime(), position.id(), page);
+        } else {
+            appointments = appointmentRepo.findPatientPage(currentUserContext.getPatientId(),
+                    status, from, to, position.startTime(), position.id(), page);
+        }
 
-            // 2. Efficiently fetch appointments using the User ID to navigate Patient relationship
-            appointments = appointmentRepo.findByPatient_User_IdOrderByIdDesc(userId);
+        String nextCursor = null;
+        if (appointments.size() > size) {
+            appointments = appointments.subList(0, size);
+            Appointment last = appointments.get(size - 1);
+            nextCursor = new AppointmentCursor(last.getStartTime(), last.getId()).encode();
         }
+
         // Convert the list of entities to DTOs in a single step
         List<AppointmentDTO> appointmentDTOList = appointments.stream()
-                .map(appointment -> modelMapper.map(appointment, AppointmentDTO.class))
+                .map(appointmentMapper::toDto)
                 .toList();
 
         return Response.<List<AppointmentDTO>>builder()
                 .statusCode(200)
                 .message("Appointments retrieved successfully.")
                 .data(appointmentDTOList)
+                .nextCursor(nextCursor)
                 .build();
 
     }
 
+    @Override
+    public Response<Long> countMyAppointments(AppointmentStatus status, LocalDateTime from, LocalDateTime to) {
+
+        long count = currentUserContext.hasRole("DOCTOR")
+                ? appointmentRepo.countDoctorAppointments(currentUserContext.getDoctorId(), status, from, to)
+                : appointmentRepo.countPatientAppointments(currentUserContext.getPatientId(), status, from, to);
+
+        return Response.<Long>builder()
+                .statusCode(200)
+                .message("Appointment count retrieved successfully.")
+                .data(count)
+                .build();
+    }
+
     @Override
     public Response<AppointmentDTO> cancelAppointment(Long appointmentId) {
 
-        User user = userService.getCurrentUser();
+        Long userId = currentUserContext.getUserId();
 
-        Appointment appointment = appointmentRepo.findById(appointmentId)
+        Appointment appointment = appointmentRepo.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found."));
 
 
         // Add security check: only the patient or doctor involved can cancel
-        boolean isOwner = appointment.getPatient().getUser().getId().equals(user.getId()) ||
-                appointment.getDoctor().getUser().getId().equals(user.getId());
+        boolean isOwner = appointment.getPatient().getUser().getId().equals(userId) ||
+                appointment.getDoctor().getUser().getId().equals(userId);
 
         if (!isOwner) {
             throw new BadRequestException("You do not have permission to cancel this appointment.");
         }
 
-        // Update status
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        Appointment savedAppointment = appointmentRepo.save(appointment);
+        // Update status, the cancellation mails to both parties are written to the outbox in the same transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            Appointment savedAppointment = appointmentRepo.save(appointment);
+            doctorScheduleIndex.removeAfterCommit(savedAppointment.getId(), savedAppointment.getDoctor().getId());
+            appointmentReminderScheduler.cancelAfterCommit(savedAppointment.getId());
 
-        // NOTE: Notification should be sent to the other party (patient/doctor)
-        sendAppointmentCancellation(savedAppointment, user);
+            outboxPublisher.publish(new AppointmentCancelled(savedAppointment.getId(), userId));
+        });
 
         return Response.<AppointmentDTO>builder()
                 .statusCode(200)
@@ -201,14 +384,14 @@ public class AppointmentServiceImpl implements AppointmentService {
     public Response<?> completeAppointment(Long appointmentId) {
 
         // Get the current user (must be the Doctor)
-        User currentUser = userService.getCurrentUser();
+        Long userId = currentUserContext.getUserId();
 
         // 1. Fetch the appointment
-        Appointment appointment = appointmentRepo.findById(appointmentId)
+        Appointment appointment = appointmentRepo.findWithParticipantsById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found with ID: " + appointmentId));
 
         // Security Check 1: Ensure the current user is the Doctor assigned to this appointment
-        if (!appointment.getDoctor().getUser().getId().equals(currentUser.getId())) {
+        if (!appointment.getDoctor().getUser().getId().equals(userId)) {
             throw new BadRequestException("Only the assigned doctor can mark this appointment as complete.");
         }
 
@@ -217,8 +400,8 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setEndTime(LocalDateTime.now());
 
         Appointment updatedAppointment = appointmentRepo.save(appointment);
-
-        modelMapper.map(updatedAppointment, AppointmentDTO.class);
+        doctorScheduleIndex.removeAfterCommit(updatedAppointment.getId(), updatedAppointment.getDoctor().getId());
+        appointmentReminderScheduler.cancelAfterCommit(updatedAppointment.getId());
 
         return Response.builder()
                 .statusCode(200)
@@ -226,130 +409,4 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .build();
 
     }
-
-    private void sendAppointmentCancellation(Appointment appointment, User cancelingUser){
-
-        User patientUser = appointment.getPatient().getUser();
-        User doctorUser = appointment.getDoctor().getUser();
-
-        // Safety check to ensure the cancellingUser is involved
-        boolean isOwner = patientUser.getId().equals(cancelingUser.getId()) || doctorUser.getId().equals(cancelingUser.getId());
-        if (!isOwner) {
-            log.error("Cancellation initiated by user not associated with appointment. User ID: {}", cancelingUser.getId());
-            return;
-        }
-
-        String formattedTime = appointment.getStartTime().format(FORMATTER);
-        String cancellingPartyName = cancelingUser.getName();
-
-
-        // --- Common Variables for the Template ---
-        Map<String, Object> baseVars = new HashMap<>();
-        baseVars.put("cancellingPartyName", cancellingPartyName);
-        baseVars.put("appointmentTime", formattedTime);
-        baseVars.put("doctorName", appointment.getDoctor().getLastName());
-        baseVars.put("patientFullName", patientUser.getName());
-
-        // --- 1. Dispatch Email to Doctor ---
-        Map<String, Object> doctorVars = new HashMap<>(baseVars);
-        doctorVars.put("recipientName", doctorUser.getName());
-
-        NotificationDTO doctorNotification = NotificationDTO.builder()
-                .recipient(doctorUser.getEmail())
-                .subject("DAT Health: Appointment Cancellation")
-                .templateName("appointment-cancellation")
-                .templateVariables(doctorVars)
-                .build();
-
-        notificationService.sendEmail(doctorNotification, doctorUser);
-        log.info("Dispatched cancellation email to Doctor: {}", doctorUser.getEmail());
-
-
-        // --- 2. Dispatch Email to Patient ---
-        Map<String, Object> patientVars = new HashMap<>(baseVars);
-        patientVars.put("recipientName", patientUser.getName());
-
-        NotificationDTO patientNotification = NotificationDTO.builder()
-                .recipient(patientUser.getEmail())
-                .subject("DAT Health: Appointment CANCELED (ID: " + appointment.getId() + ")")
-                .templateName("appointment-cancellation")
-                .templateVariables(patientVars)
-                .build();
-
-        notificationService.sendEmail(patientNotification, patientUser);
-        log.info("Dispatched cancellation email to Patient: {}", patientUser.getEmail());
-
-    }
-
-
-    private void sendAppointmentConfirmation(Appointment appointment) {
-
-        // --- 1. Prepare Patient Notification ---
-        User patientUser = appointment.getPatient().getUser();
-        String formattedTime = appointment.getStartTime().format(FORMATTER);
-
-
-        Map<String, Object> patientVars = new HashMap<>();
-        patientVars.put("patientName", patientUser.getName());
-        patientVars.put("doctorName", appointment.getDoctor().getUser().getName());
-        patientVars.put("appointmentTime", formattedTime);
-        patientVars.put("isVirtual", true);
-        patientVars.put("meetingLink", appointment.getMeetingLink());
-        patientVars.put("purposeOfConsultation", appointment.getPurposeOfConsultation());
-
-        NotificationDTO patientNotification = NotificationDTO.builder()
-                .recipient(patientUser.getEmail())
-                .subject("DAT Health: Your Appointment is Confirmed")
-                .templateName("patient-appointment")
-                .templateVariables(patientVars)
-                .build();
-
-
-        // Dispatch patient email using the low-level service
-        notificationService.sendEmail(patientNotification, patientUser);
-        log.info("Dispatched confirmation email for patient: {}", patientUser.getEmail());
-
-
-        // --- 2. Prepare Doctor Notification ---
-        User doctorUser = appointment.getDoctor().getUser();
-
-        Map<String, Object> doctorVars = new HashMap<>();
-        doctorVars.put("doctorName", doctorUser.getName());
-        doctorVars.put("patientFullName", patientUser.getName());
-        doctorVars.put("appointmentTime", formattedTime);
-        doctorVars.put("isVirtual", true);
-        doctorVars.put("meetingLink", appointment.getMeetingLink());
-        doctorVars.put("initialSymptoms", appointment.getInitialSymptoms());
-        doctorVars.put("purposeOfConsultation", appointment.getPurposeOfConsultation());
-
-        NotificationDTO doctorNotification = NotificationDTO.builder()
-                .recipient(doctorUser.getEmail())
-                .subject("DAT Health: New Appointment Booked")
-                .templateName("doctor-appointment")
-                .templateVariables(doctorVars)
-                .build();
-
-
-        // Dispatch doctor email using the low-level service
-        notificationService.sendEmail(doctorNotification, doctorUser);
-        log.info("Dispatched new appointment email for doctor: {}", doctorUser.getEmail());
-    }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
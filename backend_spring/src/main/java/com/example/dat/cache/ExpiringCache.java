@@ -0,0 +1,136 @@
+package com.example.dat.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Small size-bounded, expiry-aware in-memory cache.
+ * Every entry carries its own expiry instant, so callers can use a fixed TTL
+ * or tie the entry to the lifetime of the cached value (e.g. a token's exp claim).
+ */
+public class ExpiringCache<K, V> {
+
+    // full expiry sweeps are O(size), don't run more than one per second when the cache sits at its bound
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+    // entries looked at when a live entry has to go
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    private volatile long lastPurgeMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (entry.expiresAtMillis() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            // expired entries go first
+            if (now - lastPurgeMillis >= PURGE_INTERVAL_MILLIS) {
+                lastPurgeMillis = now;
+                purgeExpired();
+            }
+
+            // still full -> drop the soonest-expiring of a few entries, long-lived (freshly issued) ones survive
+            if (entries.size() >= maxSize) {
+                evictSoonestExpiring();
+            }
+        }
+
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    private void evictSoonestExpiring() {
+        Map.Entry<K, Entry<V>> victim = null;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+
+        for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            if (victim == null || candidate.getValue().expiresAtMillis() < victim.getValue().expiresAtMillis()) {
+                victim = candidate;
+            }
+        }
+
+        if (victim != null && entries.remove(victim.getKey(), victim.getValue())) {
+            evictions.increment();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        for (Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+            if (e.getValue().expiresAtMillis() <= now && entries.remove(e.getKey(), e.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
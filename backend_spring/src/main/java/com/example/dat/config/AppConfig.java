@@ -1,10 +1,9 @@
 package com.example.dat.config;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
 @Configuration
@@ -18,22 +17,14 @@ public class AppConfig {
         templateResolver.setPrefix("templates/");
         templateResolver.setSuffix(".html");
         templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        // mail templates only change with a deploy: parse once, keep forever (EmailRenderer warms them up)
+        templateResolver.setCacheable(true);
+        templateResolver.setCacheTTLMs(null);
 
         templateEngine.setTemplateResolver(templateResolver);
         return templateEngine;
     }
-
-
-    @Bean
-    public ModelMapper modelMapperConfig(){
-
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.getConfiguration()
-                .setFieldMatchingEnabled(true)
-                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE)
-                .setMatchingStrategy(MatchingStrategies.STANDARD);
-        return modelMapper;
-    }
 }
 
 
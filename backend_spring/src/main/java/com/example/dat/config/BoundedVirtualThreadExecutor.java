@@ -0,0 +1,98 @@
+package com.example.dat.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One virtual thread per task, but only maxConcurrency of them run the task at a time.
+ * The rest park on the semaphore, which costs next to nothing for a virtual thread, so the cap
+ * protects the downstream resource (SMTP server, disk) rather than a thread pool.
+ * Waiting tasks are bounded too: above maxQueued new work is rejected instead of piling up.
+ */
+public class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxQueued;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public BoundedVirtualThreadExecutor(String name, int maxConcurrency, int maxQueued) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Too many queued tasks (" + maxQueued + ")");
+        }
+
+        try {
+            delegate.execute(() -> runWithPermit(task));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void runWithPermit(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        queued.decrementAndGet();
+        try {
+            task.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int activeCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
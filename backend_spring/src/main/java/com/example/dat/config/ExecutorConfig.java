@@ -0,0 +1,124 @@
+package com.example.dat.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Three executors with different jobs:
+ *  - ioExecutor:   blocking I/O (file system, @Async). Virtual threads behind a concurrency cap by default,
+ *                  executor.io.mode=platform switches to a plain fixed pool with the same limits.
+ *  - mailExecutor: SMTP sessions of EmailDispatcher. Always platform threads: Jakarta Mail's SMTPTransport
+ *                  does its socket I/O inside synchronized methods, which would pin virtual threads' carriers.
+ *  - cpuExecutor:  CPU-bound work (BCrypt). Platform threads, one per core, bounded queue, rejects when full.
+ * ioExecutor is also the default executor for @Async methods.
+ */
+@Configuration
+@Slf4j
+public class ExecutorConfig implements AsyncConfigurer {
+
+    public static final String IO_EXECUTOR = "ioExecutor";
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String CPU_EXECUTOR = "cpuExecutor";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${executor.io.mode:virtual}")
+    private String ioMode;
+
+    @Value("${executor.io.max-concurrency:64}")
+    private int ioMaxConcurrency;
+
+    @Value("${executor.io.max-queued:1000}")
+    private int ioMaxQueued;
+
+    @Value("${executor.mail.threads:4}")
+    private int mailThreads;
+
+    @Value("${executor.mail.queue-capacity:16}")
+    private int mailQueueCapacity;
+
+    @Value("${executor.cpu.threads:0}")
+    private int cpuThreads;
+
+    @Value("${executor.cpu.queue-capacity:64}")
+    private int cpuQueueCapacity;
+
+    public ExecutorConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean(name = IO_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService ioExecutor() {
+
+        if ("platform".equalsIgnoreCase(ioMode)) {
+            ThreadPoolExecutor executor = boundedPool("io", ioMaxConcurrency, ioMaxQueued);
+            registerGauges("io", executor, ThreadPoolExecutor::getActiveCount, e -> e.getQueue().size());
+            return executor;
+        }
+
+        BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor("io", ioMaxConcurrency, ioMaxQueued);
+        registerGauges("io", executor, BoundedVirtualThreadExecutor::activeCount, BoundedVirtualThreadExecutor::queuedCount);
+        log.info("I/O executor: virtual threads, max {} concurrent", ioMaxConcurrency);
+        return executor;
+    }
+
+    @Bean(name = MAIL_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor mailExecutor() {
+        ThreadPoolExecutor executor = boundedPool("mail", mailThreads, mailQueueCapacity);
+        registerGauges("mail", executor, ThreadPoolExecutor::getActiveCount, e -> e.getQueue().size());
+        return executor;
+    }
+
+    @Bean(name = CPU_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor cpuExecutor() {
+        int threads = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolExecutor executor = boundedPool("cpu", threads, cpuQueueCapacity);
+        registerGauges("cpu", executor, ThreadPoolExecutor::getActiveCount, e -> e.getQueue().size());
+        return executor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return ioExecutor();
+    }
+
+    // fixed size, bounded queue, AbortPolicy -> callers see a RejectedExecutionException when saturated
+    private static ThreadPoolExecutor boundedPool(String name, int threads, int queueCapacity) {
+        AtomicInteger threadCounter = new AtomicInteger();
+
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, name + "-" + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    private <T> void registerGauges(String name, T executor, ToIntFunction<T> active, ToIntFunction<T> queued) {
+        Gauge.builder("executor.active", executor, e -> active.applyAsInt(e))
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.queued", executor, e -> queued.applyAsInt(e))
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.dat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listens to the JFR jdk.VirtualThreadPinned event in-process. A virtual thread that blocks while
+ * pinned (synchronized block, native frame) holds its carrier thread, so enough of them stall every
+ * other virtual thread. Each pin is counted and timed, and the blocking frame is logged (at most every 10s).
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final long LOG_INTERVAL_MILLIS = 10_000;
+
+    private final boolean enabled;
+    private final long thresholdMillis;
+
+    private final Counter pinnedCounter;
+    private final Timer pinnedTimer;
+    private final AtomicLong lastLoggedAt = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${executor.pinning.enabled:true}") boolean enabled,
+                                       @Value("${executor.pinning.threshold-ms:20}") long thresholdMillis) {
+        this.enabled = enabled;
+        this.thresholdMillis = thresholdMillis;
+        this.pinnedCounter = Counter.builder("executor.virtual.pinned").register(meterRegistry);
+        this.pinnedTimer = Timer.builder("executor.virtual.pinned.duration").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(thresholdMillis))
+                    .withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Watching for virtual thread pinning longer than {} ms", thresholdMillis);
+        } catch (Exception e) {
+            // JFR can be unavailable (minimal runtime images), the app works fine without it
+            log.warn("Virtual thread pinning detection disabled: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        pinnedTimer.record(event.getDuration());
+
+        long now = System.currentTimeMillis();
+        long last = lastLoggedAt.get();
+        if (now - last >= LOG_INTERVAL_MILLIS && lastLoggedAt.compareAndSet(last, now)) {
+            log.warn("Virtual thread {} pinned for {} ms at {}",
+                    event.getThread() != null ? event.getThread().getJavaName() : "?",
+                    event.getDuration().toMillis(),
+                    topFrames(event));
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "<no stack trace>";
+        }
+
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(5, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dat.consultation.mapper;
+
+import com.example.dat.consultation.dto.ConsultationDTO;
+import com.example.dat.consultation.entity.Consultation;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ConsultationMapper {
+
+    @Mapping(target = "appointmentId", source = "appointment.id")
+    ConsultationDTO toDto(Consultation consultation);
+}
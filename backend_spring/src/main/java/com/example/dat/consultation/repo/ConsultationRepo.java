@@ -1,7 +1,10 @@
 package com.example.dat.consultation.repo;
 
+import com.example.dat.consultation.dto.ConsultationDTO;
 import com.example.dat.consultation.entity.Consultation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +15,11 @@ public interface ConsultationRepo extends JpaRepository<Consultation, Long> {
     Optional<Consultation> findByAppointmentId(Long appointmentId);
 
     List<Consultation> findByAppointmentPatientIdOrderByConsultationDateDesc(Long patientId);
+
+    // history read path: DTOs straight from the query, nothing enters the persistence context
+    @Query("SELECT new com.example.dat.consultation.dto.ConsultationDTO(c.id, a.id, c.consultationDate, " +
+            "c.subjectiveNotes, c.objectiveFindings, c.assessment, c.plan) " +
+            "FROM Consultation c JOIN c.appointment a " +
+            "WHERE a.patient.id = :patientId ORDER BY c.consultationDate DESC")
+    List<ConsultationDTO> findHistoryByPatientId(@Param("patientId") Long patientId);
 }
@@ -2,20 +2,20 @@ package com.example.dat.consultation.service;
 
 import com.example.dat.appointment.entity.Appointment;
 import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.appointment.schedule.AppointmentReminderScheduler;
+import com.example.dat.appointment.schedule.DoctorScheduleIndex;
 import com.example.dat.consultation.dto.ConsultationDTO;
 import com.example.dat.consultation.entity.Consultation;
+import com.example.dat.consultation.mapper.ConsultationMapper;
 import com.example.dat.consultation.repo.ConsultationRepo;
 import com.example.dat.enums.AppointmentStatus;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
-import com.example.dat.patient.entity.Patient;
 import com.example.dat.patient.repo.PatientRepo;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -30,26 +30,30 @@ public class ConsultationServiceImpl implements ConsultationService{
 
     private final ConsultationRepo consultationRepo;
     private final AppointmentRepo appointmentRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final CurrentUserContext currentUserContext;
+    private final ConsultationMapper consultationMapper;
     private final PatientRepo patientRepo;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final AppointmentReminderScheduler appointmentReminderScheduler;
 
     @Override
     public Response<ConsultationDTO> createConsultation(ConsultationDTO consultationDTO) {
 
-        User user = userService.getCurrentUser();
+        Long userId = currentUserContext.getUserId();
         Long appointmentId = consultationDTO.getAppointmentId();
 
         Appointment appointment = appointmentRepo.findById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found."));
 
         // Security Check 1: Must be the doctor linked to the appointment
-        if (!appointment.getDoctor().getUser().getId().equals(user.getId())) {
+        if (!appointment.getDoctor().getUser().getId().equals(userId)) {
             throw new BadRequestException("You are not authorized to create notes for this consultation.");
         }
         // Complete the appointment
         appointment.setStatus(AppointmentStatus.COMPLETED);
         appointmentRepo.save(appointment);
+        doctorScheduleIndex.removeAfterCommit(appointment.getId(), appointment.getDoctor().getId());
+        appointmentReminderScheduler.cancelAfterCommit(appointment.getId());
 
         // Check 3: Ensure a consultation doesn't already exist for this appointment
         if (consultationRepo.findByAppointmentId(appointmentId).isPresent()) {
@@ -77,8 +81,6 @@ public class ConsultationServiceImpl implements ConsultationService{
     @Override
     public Response<ConsultationDTO> getConsultationByAppointmentId(Long appointmentId) {
 
-        User user = userService.getCurrentUser();
-
         Consultation consultation = consultationRepo.findByAppointmentId(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Consultation notes not found for appointment ID: " + appointmentId));
 
@@ -86,7 +88,7 @@ public class ConsultationServiceImpl implements ConsultationService{
         return Response.<ConsultationDTO>builder()
                 .statusCode(200)
                 .message("Consultation notes retrieved successfully.")
-                .data(modelMapper.map(consultation, ConsultationDTO.class))
+                .data(consultationMapper.toDto(consultation))
                 .build();
 
     }
@@ -94,24 +96,21 @@ public class ConsultationServiceImpl implements ConsultationService{
     @Override
     public Response<List<ConsultationDTO>> getConsultationHistoryForPatient(Long patientId) {
 
-        User user = userService.getCurrentUser();
-
         // 1. If patientId is null, retrieve the ID of the current authenticated patient.
         if (patientId == null) {
-            Patient currentPatient = patientRepo.findByUser(user)
+            patientId = currentUserContext.findPatientId()
                     .orElseThrow(() -> new BadRequestException("Patient profile not found for the current user"));
-            patientId = currentPatient.getId();
-        }
 
-        // Find the patient to ensure they exist (or to perform future security checks)
-        patientRepo.findById(patientId)
-                .orElseThrow(() -> new NotFoundException("Patient not found "));
+        } else if (!patientRepo.existsById(patientId)) {
+            // Find the patient to ensure they exist (or to perform future security checks)
+            throw new NotFoundException("Patient not found ");
+        }
 
 
         // Use the repository method to fetch all consultations linked via appointments
-        List<Consultation> history = consultationRepo.findByAppointmentPatientIdOrderByConsultationDateDesc(patientId);
+        List<ConsultationDTO> historyDTOs = consultationRepo.findHistoryByPatientId(patientId);
 
-        if (history.isEmpty()) {
+        if (historyDTOs.isEmpty()) {
             return Response.<List<ConsultationDTO>>builder()
                     .statusCode(200)
                     .message("No consultation history found for this patient.")
@@ -119,10 +118,6 @@ public class ConsultationServiceImpl implements ConsultationService{
                     .build();
         }
 
-        List<ConsultationDTO> historyDTOs = history.stream()
-                .map(consultation -> modelMapper.map(consultation, ConsultationDTO.class))
-                .toList();
-
         return Response.<List<ConsultationDTO>>builder()
                 .statusCode(200)
                 .message("Consultation history retrieved successfully.")
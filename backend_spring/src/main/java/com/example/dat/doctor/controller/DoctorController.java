@@ -1,14 +1,17 @@
 package com.example.dat.doctor.controller;
 
+import com.example.dat.doctor.dto.AvailabilitySlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
 import com.example.dat.doctor.service.DoctorService;
 import com.example.dat.enums.Specialization;
 import com.example.dat.res.Response;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -40,6 +43,24 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.getDoctorById(doctorId));
     }
 
+    @GetMapping("/first-available")
+    public ResponseEntity<Response<List<AvailabilitySlotDTO>>> findFirstAvailable(
+            @RequestParam Specialization specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(doctorService.findFirstAvailable(specialization, from, limit));
+    }
+
+    @GetMapping("/{doctorId}/availability")
+    public ResponseEntity<Response<List<AvailabilitySlotDTO>>> getDoctorAvailability(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ResponseEntity.ok(doctorService.getDoctorAvailability(doctorId, from, to));
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<Response<List<DoctorDTO>>> searchBySpecialization(
             @RequestParam Specialization specialization
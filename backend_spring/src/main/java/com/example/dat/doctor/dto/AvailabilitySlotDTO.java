@@ -0,0 +1,25 @@
+package com.example.dat.doctor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilitySlotDTO {
+
+    // only set when the slot comes from a multi-doctor search
+    private Long doctorId;
+    private String doctorFirstName;
+    private String doctorLastName;
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,5 @@
+package com.example.dat.doctor.dto;
+
+// id + display name only, used where whole Doctor entities would be wasted
+public record DoctorNameView(Long id, String firstName, String lastName) {
+}
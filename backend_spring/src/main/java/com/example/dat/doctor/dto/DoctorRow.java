@@ -0,0 +1,29 @@
+package com.example.dat.doctor.dto;
+
+import com.example.dat.enums.Specialization;
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.dto.UserDTO;
+
+import java.util.List;
+
+// flat read-only row selected straight from JPQL, no managed Doctor/User entities involved
+public record DoctorRow(Long id, String firstName, String lastName, Specialization specialization, String licenseNumber,
+                        Long userId, String userName, String email, String profilePictureUrl) {
+
+    public DoctorDTO toDto(List<Role> roles) {
+        return DoctorDTO.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .specialization(specialization)
+                .licenseNumber(licenseNumber)
+                .user(UserDTO.builder()
+                        .id(userId)
+                        .name(userName)
+                        .email(email)
+                        .profilePictureUrl(profilePictureUrl)
+                        .roles(roles)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.dat.doctor.mapper;
+
+import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.users.mapper.UserMapper;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = UserMapper.class)
+public interface DoctorMapper {
+
+    DoctorDTO toDto(Doctor doctor);
+}
@@ -1,9 +1,15 @@
 package com.example.dat.doctor.repo;
 
+import com.example.dat.doctor.dto.DoctorNameView;
+import com.example.dat.doctor.dto.DoctorRow;
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.enums.Specialization;
 import com.example.dat.users.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,5 +20,36 @@ public interface DoctorRepo extends JpaRepository<Doctor, Long> {
 
     Optional<Doctor> findByUserId(Long userId);
 
+    @Query("SELECT d.id FROM Doctor d WHERE d.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
     List<Doctor> findBySpecialization(Specialization specialization);
+
+    // read-only projections for the public doctor endpoints
+    @Query("SELECT new com.example.dat.doctor.dto.DoctorRow(d.id, d.firstName, d.lastName, d.specialization, d.licenseNumber, " +
+            "u.id, u.name, u.email, u.profilePictureUrl) " +
+            "FROM Doctor d JOIN d.user u " +
+            "ORDER BY d.id")
+    List<DoctorRow> findAllRows();
+
+    @Query("SELECT new com.example.dat.doctor.dto.DoctorRow(d.id, d.firstName, d.lastName, d.specialization, d.licenseNumber, " +
+            "u.id, u.name, u.email, u.profilePictureUrl) " +
+            "FROM Doctor d JOIN d.user u " +
+            "WHERE d.id = :doctorId")
+    Optional<DoctorRow> findRowById(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT new com.example.dat.doctor.dto.DoctorRow(d.id, d.firstName, d.lastName, d.specialization, d.licenseNumber, " +
+            "u.id, u.name, u.email, u.profilePictureUrl) " +
+            "FROM Doctor d JOIN d.user u " +
+            "WHERE d.specialization = :specialization ORDER BY d.id")
+    List<DoctorRow> findRowsBySpecialization(@Param("specialization") Specialization specialization);
+
+    @Query("SELECT new com.example.dat.doctor.dto.DoctorNameView(d.id, d.firstName, d.lastName) " +
+            "FROM Doctor d WHERE d.specialization = :specialization")
+    List<DoctorNameView> findNamesBySpecialization(@Param("specialization") Specialization specialization);
+
+    // SELECT ... FOR UPDATE: serializes bookings of one doctor across nodes until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :doctorId")
+    Optional<Doctor> findByIdForUpdate(@Param("doctorId") Long doctorId);
 }
@@ -1,9 +1,11 @@
 package com.example.dat.doctor.service;
 
+import com.example.dat.doctor.dto.AvailabilitySlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
 import com.example.dat.enums.Specialization;
 import com.example.dat.res.Response;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface DoctorService {
@@ -19,4 +21,8 @@ public interface DoctorService {
     Response<List<DoctorDTO>> searchDoctorsBySpecialization(Specialization specialization);
 
     Response<List<Specialization>> getAllSpecializationEnums();
+
+    Response<List<AvailabilitySlotDTO>> getDoctorAvailability(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    Response<List<AvailabilitySlotDTO>> findFirstAvailable(Specialization specialization, LocalDateTime from, int limit);
 }
@@ -1,22 +1,37 @@
 package com.example.dat.doctor.service;
 
+import com.example.dat.appointment.dto.BookableSlot;
+import com.example.dat.appointment.schedule.DoctorScheduleIndex;
+import com.example.dat.cache.ExpiringCache;
+import com.example.dat.doctor.dto.AvailabilitySlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.dto.DoctorNameView;
+import com.example.dat.doctor.dto.DoctorRow;
 import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.mapper.DoctorMapper;
 import com.example.dat.doctor.repo.DoctorRepo;
 import com.example.dat.enums.Specialization;
+import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.repo.UserRepo;
+import com.example.dat.users.service.CurrentUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,30 +39,47 @@ import java.util.Optional;
 public class DoctorServiceImpl implements DoctorService {
 
     private final DoctorRepo doctorRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final CurrentUserContext currentUserContext;
+    private final DoctorMapper doctorMapper;
+    private final UserRepo userRepo;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+
+    @Value("${appointment.availability.max-days:31}")
+    private int maxAvailabilityDays;
+
+    @Value("${appointment.availability.default-days:7}")
+    private int defaultAvailabilityDays;
+
+    @Value("${appointment.availability.max-results:50}")
+    private int maxFirstAvailableResults;
+
+    @Value("${appointment.availability.doctors-cache-ttl-seconds:30}")
+    private long doctorsBySpecializationTtlSeconds;
+
+    // doctors are never deleted, so once seen an id never needs another existence query
+    private final Set<Long> knownDoctorIds = ConcurrentHashMap.newKeySet();
+
+    // doctors per specialization for the first-available search, refreshed every few seconds
+    private final ExpiringCache<Specialization, List<DoctorNameView>> doctorsBySpecialization =
+            new ExpiringCache<>(Specialization.values().length);
 
     @Override
     public Response<DoctorDTO> getDoctorProfile() {
 
-        User user = userService.getCurrentUser();
-
-        Doctor doctor = doctorRepo.findByUserId(user.getId())
+        Doctor doctor = doctorRepo.findByUserId(currentUserContext.getUserId())
                 .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
 
         return Response.<DoctorDTO>builder()
                 .statusCode(200)
                 .message("Doctor profile retrieved successfully.")
-                .data(modelMapper.map(doctor, DoctorDTO.class))
+                .data(doctorMapper.toDto(doctor))
                 .build();
     }
 
     @Override
     public Response<?> updateDoctorProfile(DoctorDTO doctorDTO) {
 
-        User user = userService.getCurrentUser();
-
-        Doctor doctor = doctorRepo.findByUserId(user.getId())
+        Doctor doctor = doctorRepo.findByUserId(currentUserContext.getUserId())
                 .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
 
         if (StringUtils.hasText(doctorDTO.getFirstName())) {
@@ -62,6 +94,7 @@ public class DoctorServiceImpl implements DoctorService {
                 .ifPresent(doctor::setSpecialization);
 
         doctorRepo.save(doctor);
+        doctorsBySpecialization.invalidateAll();
 
         return Response.builder()
                 .statusCode(200)
@@ -72,11 +105,7 @@ public class DoctorServiceImpl implements DoctorService {
     @Override
     public Response<List<DoctorDTO>> getAllDoctors() {
 
-        List<Doctor> doctors = doctorRepo.findAll();
-
-        List<DoctorDTO> dtos = doctors.stream()
-                .map(d -> modelMapper.map(d, DoctorDTO.class))
-                .toList();
+        List<DoctorDTO> dtos = toDtos(doctorRepo.findAllRows());
 
         return Response.<List<DoctorDTO>>builder()
                 .statusCode(200)
@@ -88,24 +117,20 @@ public class DoctorServiceImpl implements DoctorService {
     @Override
     public Response<DoctorDTO> getDoctorById(Long doctorId) {
 
-        Doctor doctor = doctorRepo.findById(doctorId)
+        DoctorRow doctor = doctorRepo.findRowById(doctorId)
                 .orElseThrow(() -> new NotFoundException("Doctor not found"));
 
         return Response.<DoctorDTO>builder()
                 .statusCode(200)
                 .message("Doctor retrieved successfully.")
-                .data(modelMapper.map(doctor, DoctorDTO.class))
+                .data(toDtos(List.of(doctor)).get(0))
                 .build();
     }
 
     @Override
     public Response<List<DoctorDTO>> searchDoctorsBySpecialization(Specialization specialization) {
 
-        List<Doctor> doctors = doctorRepo.findBySpecialization(specialization);
-
-        List<DoctorDTO> dtos = doctors.stream()
-                .map(d -> modelMapper.map(d, DoctorDTO.class))
-                .toList();
+        List<DoctorDTO> dtos = toDtos(doctorRepo.findRowsBySpecialization(specialization));
 
         return Response.<List<DoctorDTO>>builder()
                 .statusCode(200)
@@ -123,4 +148,95 @@ public class DoctorServiceImpl implements DoctorService {
                 .data(Arrays.asList(Specialization.values()))
                 .build();
     }
+
+    @Override
+    public Response<List<AvailabilitySlotDTO>> getDoctorAvailability(Long doctorId, LocalDateTime from, LocalDateTime to) {
+
+        if (!knownDoctorIds.contains(doctorId)) {
+            if (!doctorRepo.existsById(doctorId)) {
+                throw new NotFoundException("Doctor not found");
+            }
+            knownDoctorIds.add(doctorId);
+        }
+
+        // same rule as bookAppointment: at least 1 hour in advance
+        LocalDateTime earliest = LocalDateTime.now().plusHours(1);
+        LocalDateTime start = from == null || from.isBefore(earliest) ? earliest : from;
+        LocalDateTime end = to == null ? start.plusDays(defaultAvailabilityDays) : to;
+
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("'to' must be after 'from' and at least 1 hour from now.");
+        }
+        if (end.isAfter(start.plusDays(maxAvailabilityDays))) {
+            throw new BadRequestException("Availability can be requested for at most " + maxAvailabilityDays + " days at a time.");
+        }
+
+        List<AvailabilitySlotDTO> slots = doctorScheduleIndex.bookableStarts(doctorId, start, end, Integer.MAX_VALUE)
+                .stream()
+                .map(s -> AvailabilitySlotDTO.builder()
+                        .startTime(s)
+                        .endTime(s.plusMinutes(DoctorScheduleIndex.SLOT_MINUTES))
+                        .build())
+                .toList();
+
+        return Response.<List<AvailabilitySlotDTO>>builder()
+                .statusCode(200)
+                .message("Doctor availability retrieved successfully.")
+                .data(slots)
+                .build();
+    }
+
+    @Override
+    public Response<List<AvailabilitySlotDTO>> findFirstAvailable(Specialization specialization, LocalDateTime from, int limit) {
+
+        if (limit < 1 || limit > maxFirstAvailableResults) {
+            throw new BadRequestException("limit must be between 1 and " + maxFirstAvailableResults + ".");
+        }
+
+        LocalDateTime earliest = LocalDateTime.now().plusHours(1);
+        LocalDateTime start = from == null || from.isBefore(earliest) ? earliest : from;
+        LocalDateTime end = start.plusDays(maxAvailabilityDays);
+
+        Map<Long, DoctorNameView> doctors = getDoctorsBySpecialization(specialization).stream()
+                .collect(Collectors.toMap(DoctorNameView::id, Function.identity()));
+
+        List<BookableSlot> earliestSlots = doctorScheduleIndex.earliestBookable(doctors.keySet(), start, end, limit);
+
+        List<AvailabilitySlotDTO> slots = earliestSlots.stream()
+                .map(slot -> {
+                    DoctorNameView doctor = doctors.get(slot.doctorId());
+                    return AvailabilitySlotDTO.builder()
+                            .doctorId(slot.doctorId())
+                            .doctorFirstName(doctor.firstName())
+                            .doctorLastName(doctor.lastName())
+                            .startTime(slot.startTime())
+                            .endTime(slot.startTime().plusMinutes(DoctorScheduleIndex.SLOT_MINUTES))
+                            .build();
+                })
+                .toList();
+
+        return Response.<List<AvailabilitySlotDTO>>builder()
+                .statusCode(200)
+                .message("Earliest available slots retrieved successfully.")
+                .data(slots)
+                .build();
+    }
+
+    // one extra query for the roles of all listed doctors' users
+    private List<DoctorDTO> toDtos(List<DoctorRow> rows) {
+        Map<Long, List<Role>> roles = userRepo.findRolesByUserIds(rows.stream().map(DoctorRow::userId).toList());
+        return rows.stream()
+                .map(row -> row.toDto(roles.getOrDefault(row.userId(), List.of())))
+                .toList();
+    }
+
+    private List<DoctorNameView> getDoctorsBySpecialization(Specialization specialization) {
+        List<DoctorNameView> doctors = doctorsBySpecialization.get(specialization);
+        if (doctors == null) {
+            doctors = doctorRepo.findNamesBySpecialization(specialization);
+            doctorsBySpecialization.put(specialization, doctors,
+                    System.currentTimeMillis() + doctorsBySpecializationTtlSeconds * 1000);
+        }
+        return doctors;
+    }
 }
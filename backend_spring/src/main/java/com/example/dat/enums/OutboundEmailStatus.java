@@ -0,0 +1,8 @@
+package com.example.dat.enums;
+
+public enum OutboundEmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,7 @@
+package com.example.dat.enums;
+
+public enum OutboxEventStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
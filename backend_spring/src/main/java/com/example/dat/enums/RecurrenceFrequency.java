@@ -0,0 +1,6 @@
+package com.example.dat.enums;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY
+}
@@ -40,4 +40,14 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Response<?>> handleTooManyRequestsException(TooManyRequestsException ex){
+        Response<?> response = Response.builder()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value()) //429
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+
 }
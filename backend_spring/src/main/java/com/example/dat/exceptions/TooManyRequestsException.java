@@ -0,0 +1,7 @@
+package com.example.dat.exceptions;
+
+public class TooManyRequestsException extends RuntimeException{
+    public TooManyRequestsException(String ex){
+        super(ex);
+    }
+}
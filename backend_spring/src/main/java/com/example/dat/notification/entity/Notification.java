@@ -20,8 +20,11 @@ import java.time.LocalDateTime;
 public class Notification {
 
 
+    // pooled sequence (a notification_seq table on MySQL): ids are handed out 100 at a time,
+    // so log inserts can be JDBC-batched, see NotificationLogWriter
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 100)
     private Long id;
 
     private String subject;
@@ -0,0 +1,66 @@
+package com.example.dat.notification.entity;
+
+import com.example.dat.enums.NotificationType;
+import com.example.dat.enums.OutboundEmailStatus;
+import com.example.dat.users.entity.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// a rendered mail waiting for EmailDispatcher, deleted a while after it is sent or declared dead
+@Entity
+@Table(name = "outbound_emails")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    private String templateName;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboundEmailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // PENDING: earliest retry time, SENDING: end of the dispatcher's lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    // set when the row becomes SENT or DEAD, the retention purge counts from here
+    private LocalDateTime finishedAt;
+}
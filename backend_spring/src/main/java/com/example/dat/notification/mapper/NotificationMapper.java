@@ -0,0 +1,24 @@
+package com.example.dat.notification.mapper;
+
+import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.entity.OutboundEmail;
+import com.example.dat.users.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface NotificationMapper {
+
+    // log row for a sent notification, channel defaults to EMAIL
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "type", source = "notificationDTO.type", defaultValue = "EMAIL")
+    @Mapping(target = "user", source = "user")
+    Notification toEntity(NotificationDTO notificationDTO, User user);
+
+    // same log row once a queued mail went out, rendered template bodies are not copied
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "type", defaultValue = "EMAIL")
+    @Mapping(target = "message", expression = "java(email.getTemplateName() == null ? email.getBody() : null)")
+    Notification toEntity(OutboundEmail email);
+}
@@ -0,0 +1,67 @@
+package com.example.dat.notification.repo;
+
+import com.example.dat.enums.OutboundEmailStatus;
+import com.example.dat.notification.entity.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboundEmailRepo extends JpaRepository<OutboundEmail, Long> {
+
+    // due mails plus SENDING rows whose lease ran out (dispatcher died mid-batch).
+    // SKIP LOCKED lets several workers / instances claim disjoint batches without waiting on each other
+    @Query(value = "SELECT * FROM outbound_emails " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboundEmail> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENDING', e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    void markSending(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // lease ran out while SENDING: the dispatcher died mid-batch, that counts as an attempt
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    void incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENT', e.sentAt = :sentAt, e.finishedAt = :sentAt, e.lastError = null " +
+            "WHERE e.id IN :ids")
+    void markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id")
+    void markFailed(@Param("id") Long id,
+                    @Param("status") OutboundEmailStatus status,
+                    @Param("attempts") int attempts,
+                    @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                    @Param("lastError") String lastError);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = 'DEAD', e.attempts = :attempts, " +
+            "e.finishedAt = :finishedAt, e.lastError = :lastError WHERE e.id = :id")
+    void markDead(@Param("id") Long id,
+                  @Param("attempts") int attempts,
+                  @Param("finishedAt") LocalDateTime finishedAt,
+                  @Param("lastError") String lastError);
+
+    // SENT / DEAD rows are only kept (with their full body) for the retention period
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundEmail e WHERE e.status IN ('SENT', 'DEAD') AND e.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+
+    long countByStatus(OutboundEmailStatus status);
+}
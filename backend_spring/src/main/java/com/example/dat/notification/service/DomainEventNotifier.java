@@ -0,0 +1,297 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.outbox.event.AppointmentBooked;
+import com.example.dat.outbox.event.AppointmentCancelled;
+import com.example.dat.outbox.event.AppointmentSeriesBooked;
+import com.example.dat.outbox.event.DomainEvent;
+import com.example.dat.outbox.event.PasswordChanged;
+import com.example.dat.outbox.event.PasswordResetRequested;
+import com.example.dat.outbox.event.UserRegistered;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.PasswordResetRepo;
+import com.example.dat.users.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns domain events from the outbox into notifications. Runs on the relay thread inside the
+ * relay's transaction, so all lazy associations are still reachable here.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DomainEventNotifier {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy 'at' hh:mm a");
+
+    private final NotificationService notificationService;
+    private final AppointmentRepo appointmentRepo;
+    private final UserRepo userRepo;
+    private final PasswordResetRepo passwordResetRepo;
+
+    @Value("${password.reset.link}")
+    private String resetLink;
+
+    @Value("${login.link}")
+    private String loginLink;
+
+
+    public void notify(DomainEvent event) {
+        switch (event) {
+            case AppointmentBooked e -> appointmentRepo.findWithParticipantsById(e.appointmentId())
+                    .ifPresentOrElse(this::sendAppointmentConfirmation, () -> skip(e));
+
+            case AppointmentSeriesBooked e -> {
+                List<Appointment> appointments = appointmentRepo.findWithParticipantsByIdIn(e.appointmentIds()).stream()
+                        .sorted(Comparator.comparing(Appointment::getStartTime))
+                        .toList();
+                if (appointments.isEmpty()) {
+                    skip(e);
+                } else {
+                    sendSeriesConfirmation(appointments);
+                }
+            }
+
+            case AppointmentCancelled e -> appointmentRepo.findWithParticipantsById(e.appointmentId())
+                    .ifPresentOrElse(a -> sendAppointmentCancellation(a, e.cancelledByUserId()), () -> skip(e));
+
+            case UserRegistered e -> userRepo.findById(e.userId())
+                    .ifPresentOrElse(this::sendRegistrationEmail, () -> skip(e));
+
+            // only a still-valid code is mailed, a used / expired / replaced one is skipped
+            case PasswordResetRequested e -> passwordResetRepo.findFirstByUserIdOrderByIdDesc(e.userId())
+                    .filter(c -> !c.isUsed() && c.getExpiryDate().isAfter(LocalDateTime.now()))
+                    .ifPresentOrElse(c -> sendPasswordResetEmail(c.getUser(), c.getCode()), () -> skip(e));
+
+            case PasswordChanged e -> userRepo.findById(e.userId())
+                    .ifPresentOrElse(u -> sendPasswordChangedEmail(u, e.viaResetCode()), () -> skip(e));
+        }
+    }
+
+    private void skip(DomainEvent event) {
+        log.warn("Nothing to notify for {}, the entity no longer exists", event);
+    }
+
+
+    // --- ACCOUNT ---
+
+    private void sendRegistrationEmail(User user) {
+        NotificationDTO email = NotificationDTO.builder()
+                .recipient(user.getEmail())
+                .subject("Welcome to DAT Health!")
+                .templateName("welcome")
+                .templateVariables(Map.of(
+                        "name", user.getName(),
+                        "loginLink", loginLink
+                ))
+                .build();
+
+        notificationService.sendEmail(email, user);
+    }
+
+    private void sendPasswordResetEmail(User user, String code) {
+        NotificationDTO passwordResetEmail = NotificationDTO.builder()
+                .recipient(user.getEmail())
+                .subject("Password Reset Request")
+                .templateName("password-reset")
+                .templateVariables(Map.of(
+                        "name", user.getName(),
+                        "resetLink", resetLink + code
+                ))
+                .build();
+
+        notificationService.sendEmail(passwordResetEmail, user);
+    }
+
+    private void sendPasswordChangedEmail(User user, boolean viaResetCode) {
+        NotificationDTO email = viaResetCode
+                ? NotificationDTO.builder()
+                .recipient(user.getEmail())
+                .subject("Password Updated Successfully")
+                .templateName("password-update-confirmation")
+                .templateVariables(Map.of("name", user.getName()))
+                .build()
+                : NotificationDTO.builder()
+                .recipient(user.getEmail())
+                .subject("Your Password Was Successfully Changed")
+                .templateName("password-change")
+                .templateVariables(Map.of("name", user.getName()))
+                .build();
+
+        notificationService.sendEmail(email, user);
+    }
+
+
+    // --- APPOINTMENTS ---
+
+    private void sendAppointmentCancellation(Appointment appointment, Long cancelingUserId){
+
+        User patientUser = appointment.getPatient().getUser();
+        User doctorUser = appointment.getDoctor().getUser();
+
+        // Safety check to ensure the cancellingUser is involved
+        boolean isOwner = patientUser.getId().equals(cancelingUserId) || doctorUser.getId().equals(cancelingUserId);
+        if (!isOwner) {
+            log.error("Cancellation initiated by user not associated with appointment. User ID: {}", cancelingUserId);
+            return;
+        }
+
+        // the canceling party is one of the two participants, no need to load it again
+        User cancelingUser = patientUser.getId().equals(cancelingUserId) ? patientUser : doctorUser;
+
+        String formattedTime = appointment.getStartTime().format(FORMATTER);
+        String cancellingPartyName = cancelingUser.getName();
+
+
+        // --- Common Variables for the Template ---
+        Map<String, Object> baseVars = new HashMap<>();
+        baseVars.put("cancellingPartyName", cancellingPartyName);
+        baseVars.put("appointmentTime", formattedTime);
+        baseVars.put("doctorName", appointment.getDoctor().getLastName());
+        baseVars.put("patientFullName", patientUser.getName());
+
+        // --- 1. Dispatch Email to Doctor ---
+        Map<String, Object> doctorVars = new HashMap<>(baseVars);
+        doctorVars.put("recipientName", doctorUser.getName());
+
+        NotificationDTO doctorNotification = NotificationDTO.builder()
+                .recipient(doctorUser.getEmail())
+                .subject("DAT Health: Appointment Cancellation")
+                .templateName("appointment-cancellation")
+                .templateVariables(doctorVars)
+                .build();
+
+        notificationService.sendEmail(doctorNotification, doctorUser);
+        log.info("Dispatched cancellation email to Doctor: {}", doctorUser.getEmail());
+
+
+        // --- 2. Dispatch Email to Patient ---
+        Map<String, Object> patientVars = new HashMap<>(baseVars);
+        patientVars.put("recipientName", patientUser.getName());
+
+        NotificationDTO patientNotification = NotificationDTO.builder()
+                .recipient(patientUser.getEmail())
+                .subject("DAT Health: Appointment CANCELED (ID: " + appointment.getId() + ")")
+                .templateName("appointment-cancellation")
+                .templateVariables(patientVars)
+                .build();
+
+        notificationService.sendEmail(patientNotification, patientUser);
+        log.info("Dispatched cancellation email to Patient: {}", patientUser.getEmail());
+
+    }
+
+
+    private void sendAppointmentConfirmation(Appointment appointment) {
+
+        // --- 1. Prepare Patient Notification ---
+        User patientUser = appointment.getPatient().getUser();
+        String formattedTime = appointment.getStartTime().format(FORMATTER);
+
+
+        Map<String, Object> patientVars = new HashMap<>();
+        patientVars.put("patientName", patientUser.getName());
+        patientVars.put("doctorName", appointment.getDoctor().getUser().getName());
+        patientVars.put("appointmentTime", formattedTime);
+        patientVars.put("isVirtual", true);
+        patientVars.put("meetingLink", appointment.getMeetingLink());
+        patientVars.put("purposeOfConsultation", appointment.getPurposeOfConsultation());
+
+        NotificationDTO patientNotification = NotificationDTO.builder()
+                .recipient(patientUser.getEmail())
+                .subject("DAT Health: Your Appointment is Confirmed")
+                .templateName("patient-appointment")
+                .templateVariables(patientVars)
+                .build();
+
+
+        // Dispatch patient email using the low-level service
+        notificationService.sendEmail(patientNotification, patientUser);
+        log.info("Dispatched confirmation email for patient: {}", patientUser.getEmail());
+
+
+        // --- 2. Prepare Doctor Notification ---
+        User doctorUser = appointment.getDoctor().getUser();
+
+        Map<String, Object> doctorVars = new HashMap<>();
+        doctorVars.put("doctorName", doctorUser.getName());
+        doctorVars.put("patientFullName", patientUser.getName());
+        doctorVars.put("appointmentTime", formattedTime);
+        doctorVars.put("isVirtual", true);
+        doctorVars.put("meetingLink", appointment.getMeetingLink());
+        doctorVars.put("initialSymptoms", appointment.getInitialSymptoms());
+        doctorVars.put("purposeOfConsultation", appointment.getPurposeOfConsultation());
+
+        NotificationDTO doctorNotification = NotificationDTO.builder()
+                .recipient(doctorUser.getEmail())
+                .subject("DAT Health: New Appointment Booked")
+                .templateName("doctor-appointment")
+                .templateVariables(doctorVars)
+                .build();
+
+
+        // Dispatch doctor email using the low-level service
+        notificationService.sendEmail(doctorNotification, doctorUser);
+        log.info("Dispatched new appointment email for doctor: {}", doctorUser.getEmail());
+    }
+
+
+    private void sendSeriesConfirmation(List<Appointment> appointments) {
+
+        Appointment first = appointments.get(0);
+        User patientUser = first.getPatient().getUser();
+        User doctorUser = first.getDoctor().getUser();
+
+        List<Map<String, Object>> occurrences = appointments.stream()
+                .map(a -> Map.<String, Object>of(
+                        "appointmentTime", a.getStartTime().format(FORMATTER),
+                        "meetingLink", a.getMeetingLink()))
+                .toList();
+
+        Map<String, Object> baseVars = new HashMap<>();
+        baseVars.put("occurrences", occurrences);
+        baseVars.put("purposeOfConsultation", first.getPurposeOfConsultation());
+
+        // --- 1. Patient ---
+        Map<String, Object> patientVars = new HashMap<>(baseVars);
+        patientVars.put("recipientName", patientUser.getName());
+        patientVars.put("otherPartyLabel", "Doctor");
+        patientVars.put("otherPartyName", doctorUser.getName());
+
+        notificationService.sendEmail(NotificationDTO.builder()
+                .recipient(patientUser.getEmail())
+                .subject("DAT Health: " + appointments.size() + " Appointments Confirmed")
+                .templateName("appointment-series")
+                .templateVariables(patientVars)
+                .build(), patientUser);
+
+        // --- 2. Doctor ---
+        Map<String, Object> doctorVars = new HashMap<>(baseVars);
+        doctorVars.put("recipientName", doctorUser.getName());
+        doctorVars.put("otherPartyLabel", "Patient");
+        doctorVars.put("otherPartyName", patientUser.getName());
+        doctorVars.put("initialSymptoms", first.getInitialSymptoms());
+
+        notificationService.sendEmail(NotificationDTO.builder()
+                .recipient(doctorUser.getEmail())
+                .subject("DAT Health: " + appointments.size() + " New Appointments Booked")
+                .templateName("appointment-series")
+                .templateVariables(doctorVars)
+                .build(), doctorUser);
+
+        log.info("Dispatched series confirmation ({} appointments) to {} and {}",
+                appointments.size(), patientUser.getEmail(), doctorUser.getEmail());
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.config.ExecutorConfig;
+import com.example.dat.enums.OutboundEmailStatus;
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.entity.OutboundEmail;
+import com.example.dat.notification.mapper.NotificationMapper;
+import com.example.dat.notification.repo.OutboundEmailRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbound_emails queue.
+ * Each worker claims a batch (SELECT ... FOR UPDATE SKIP LOCKED + lease), sends it over one SMTP
+ * session and records the outcome. Failures are retried with exponential backoff until
+ * max-attempts, after that the row is parked as DEAD for manual inspection.
+ * Delivery is at-least-once: a crash between SMTP and the SENT update re-sends after the lease.
+ * An expired lease counts as a failed attempt, so a mail that keeps crashing the sender still ends up DEAD.
+ * SENT and DEAD rows are deleted retention-hours after they finished.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private final OutboundEmailRepo outboundEmailRepo;
+    private final NotificationLogWriter notificationLogWriter;
+    private final NotificationMapper notificationMapper;
+    private final SmtpBatchSender smtpBatchSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final long backoffBaseSeconds;
+    private final long backoffMaxSeconds;
+    private final long leaseSeconds;
+    private final long retentionHours;
+
+    private final ExecutorService workers;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+
+    // refreshed by refreshPendingCount(), a scrape must not run a COUNT over the queue
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    public EmailDispatcher(OutboundEmailRepo outboundEmailRepo,
+                           NotificationLogWriter notificationLogWriter,
+                           NotificationMapper notificationMapper,
+                           SmtpBatchSender smtpBatchSender,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Qualifier(ExecutorConfig.MAIL_EXECUTOR) ExecutorService workers,
+                           @Value("${notification.dispatch.batch-size:50}") int batchSize,
+                           @Value("${notification.dispatch.concurrency:2}") int concurrency,
+                           @Value("${notification.dispatch.max-attempts:6}") int maxAttempts,
+                           @Value("${notification.dispatch.backoff-base-seconds:30}") long backoffBaseSeconds,
+                           @Value("${notification.dispatch.backoff-max-seconds:3600}") long backoffMaxSeconds,
+                           @Value("${notification.dispatch.lease-seconds:300}") long leaseSeconds,
+                           @Value("${notification.dispatch.retention-hours:168}") long retentionHours) {
+
+        this.outboundEmailRepo = outboundEmailRepo;
+        this.notificationLogWriter = notificationLogWriter;
+        this.notificationMapper = notificationMapper;
+        this.smtpBatchSender = smtpBatchSender;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseSeconds = backoffBaseSeconds;
+        this.backoffMaxSeconds = backoffMaxSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.retentionHours = retentionHours;
+
+        this.workers = workers;
+
+        this.sentCounter = Counter.builder("notification.email.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("notification.email.retried").register(meterRegistry);
+        this.deadCounter = Counter.builder("notification.email.dead").register(meterRegistry);
+
+        Gauge.builder("notification.email.pending", pendingCount, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.interval-ms:5000}")
+    public void dispatch() {
+
+        // at most `concurrency` SMTP sessions open at once, each worker drains until the queue is empty
+        List<Future<Integer>> running = new ArrayList<>(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                running.add(workers.submit(this::drain));
+            }
+        } catch (RejectedExecutionException e) {
+            // mail executor saturated, whatever was started still runs, the rest waits for the next round
+            log.warn("Mail executor busy, dispatching with {} of {} workers", running.size(), concurrency);
+        }
+
+        int total = 0;
+        for (Future<Integer> future : running) {
+            try {
+                total += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Mail dispatch worker failed", e.getCause());
+            }
+        }
+
+        if (total > 0) {
+            log.info("Dispatched {} queued emails", total);
+        }
+    }
+
+    private int drain() {
+        int processed = 0;
+
+        while (true) {
+            List<OutboundEmail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                return processed;
+            }
+
+            deliver(batch);
+            processed += batch.size();
+
+            if (batch.size() < batchSize) {
+                return processed;
+            }
+        }
+    }
+
+    // short transaction: lock the rows, stamp the lease, commit before talking to SMTP
+    private List<OutboundEmail> claimBatch() {
+        List<OutboundEmail> expiredLeases = new ArrayList<>();
+
+        List<OutboundEmail> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+
+            List<OutboundEmail> batch = new ArrayList<>();
+            for (OutboundEmail email : outboundEmailRepo.lockDue(now, batchSize)) {
+                if (email.getStatus() != OutboundEmailStatus.SENDING) {
+                    batch.add(email);
+                    continue;
+                }
+
+                int attempts = email.getAttempts() + 1;
+                if (attempts >= maxAttempts) {
+                    log.error("Giving up on email {} to {} after {} attempts: lease expired",
+                            email.getId(), email.getRecipient(), attempts);
+                    outboundEmailRepo.markDead(email.getId(), attempts, now,
+                            "Lease expired, dispatcher did not finish the batch");
+                    deadCounter.increment();
+                } else {
+                    expiredLeases.add(email);
+                    batch.add(email);
+                }
+            }
+
+            if (!expiredLeases.isEmpty()) {
+                outboundEmailRepo.incrementAttempts(expiredLeases.stream().map(OutboundEmail::getId).toList());
+            }
+            if (!batch.isEmpty()) {
+                outboundEmailRepo.markSending(batch.stream().map(OutboundEmail::getId).toList(),
+                        now.plusSeconds(leaseSeconds));
+            }
+            return batch;
+        });
+
+        // detached now, keep the in-memory count in step with the row (deliver() builds on it)
+        expiredLeases.forEach(email -> email.setAttempts(email.getAttempts() + 1));
+        return claimed;
+    }
+
+    private void deliver(List<OutboundEmail> batch) {
+
+        Map<Long, String> failures = smtpBatchSender.send(batch);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<Notification> sentLog = new ArrayList<>(batch.size());
+
+        for (OutboundEmail email : batch) {
+            String error = failures.get(email.getId());
+
+            if (error == null) {
+                sentIds.add(email.getId());
+                sentLog.add(notificationMapper.toEntity(email));
+                continue;
+            }
+
+            int attempts = email.getAttempts() + 1;
+
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on email {} to {} after {} attempts: {}",
+                        email.getId(), email.getRecipient(), attempts, error);
+                outboundEmailRepo.markDead(email.getId(), attempts, now, error);
+                deadCounter.increment();
+            } else {
+                log.warn("Email {} to {} failed (attempt {}), retrying: {}",
+                        email.getId(), email.getRecipient(), attempts, error);
+                outboundEmailRepo.markFailed(email.getId(), OutboundEmailStatus.PENDING, attempts,
+                        now.plusSeconds(backoffSeconds(attempts)), error);
+                retriedCounter.increment();
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboundEmailRepo.markSent(sentIds, now);
+            notificationLogWriter.append(sentLog);
+            sentCounter.increment(sentIds.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.purge-interval-ms:3600000}")
+    public void purgeFinished() {
+        int deleted = outboundEmailRepo.deleteFinishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} sent / dead emails older than {}h", deleted, retentionHours);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.pending-gauge-refresh-ms:30000}")
+    public void refreshPendingCount() {
+        pendingCount.set(outboundEmailRepo.countByStatus(OutboundEmailStatus.PENDING));
+    }
+
+    // base * 2^(attempts - 1), capped: 30s, 1m, 2m, 4m ... 1h
+    long backoffSeconds(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(backoffMaxSeconds, backoffBaseSeconds << shift);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.dat.notification.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders the mail templates under resources/templates.
+ * Every template is parsed once at startup, so no send pays for parsing. The parsed template,
+ * including its static markup and inline CSS, stays in the engine's cache.
+ * Context objects are pooled and reused, because every mail would otherwise allocate a fresh one
+ * and its variable map.
+ */
+@Component
+@Slf4j
+public class EmailRenderer {
+
+    private static final String TEMPLATE_LOCATION = "classpath:templates/*.html";
+
+    private final ITemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<Context> contextPool;
+
+    private final List<String> templateNames = new ArrayList<>();
+
+    public EmailRenderer(ITemplateEngine templateEngine,
+                         MeterRegistry meterRegistry,
+                         @Value("${notification.render.context-pool-size:16}") int contextPoolSize) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+        this.contextPool = new ArrayBlockingQueue<>(contextPoolSize);
+    }
+
+    @PostConstruct
+    void warmUp() throws IOException {
+        long started = System.nanoTime();
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(TEMPLATE_LOCATION)) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+
+            String name = filename.substring(0, filename.length() - ".html".length());
+            try {
+                // processing with no variables still parses and caches the template
+                templateEngine.process(name, new Context(Locale.ENGLISH));
+            } catch (RuntimeException e) {
+                // expressions on missing variables can fail here, the parse result is cached before that
+                log.debug("Warm-up render of {} failed: {}", name, e.getMessage());
+            }
+            templateNames.add(name);
+        }
+
+        log.info("Warmed up {} email templates in {} ms", templateNames.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+
+        Context context = contextPool.poll();
+        if (context == null) {
+            context = new Context(Locale.ENGLISH);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (variables != null) {
+                context.setVariables(variables);
+            }
+            return templateEngine.process(templateName, context);
+        } finally {
+            sample.stop(Timer.builder("notification.email.render")
+                    .tag("template", templateName)
+                    .register(meterRegistry));
+
+            // never hand the next mail this recipient's data
+            context.clearVariables();
+            contextPool.offer(context);
+        }
+    }
+
+    public List<String> templateNames() {
+        return List.copyOf(templateNames);
+    }
+}
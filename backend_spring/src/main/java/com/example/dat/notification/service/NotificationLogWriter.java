@@ -0,0 +1,105 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.repo.NotificationRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Buffers notification log rows and writes them in batches, either when batch-size rows are waiting
+ * or every flush-interval-ms. Notification ids come from a pooled sequence, so Hibernate can
+ * JDBC-batch the inserts (IDENTITY would force one round trip per row) and with
+ * rewriteBatchedStatements each flush is a handful of multi-row INSERTs.
+ * The buffer is drained on shutdown. A crash loses at most one interval of log rows; the mails
+ * themselves are tracked in outbound_emails.
+ */
+@Component
+@Slf4j
+public class NotificationLogWriter {
+
+    private final NotificationRepo notificationRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final BlockingQueue<Notification> buffer;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    public NotificationLogWriter(NotificationRepo notificationRepo,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.log.batch-size:200}") int batchSize,
+                                 @Value("${notification.log.max-buffered:10000}") int maxBuffered) {
+        this.notificationRepo = notificationRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.buffer = new LinkedBlockingQueue<>(maxBuffered);
+
+        this.writtenCounter = Counter.builder("notification.log.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("notification.log.dropped").register(meterRegistry);
+        Gauge.builder("notification.log.buffered", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public void append(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (!buffer.offer(notification)) {
+                // full: write what is there on this thread, then try once more
+                flush();
+                if (!buffer.offer(notification)) {
+                    droppedCounter.increment();
+                }
+            }
+        }
+
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.log.flush-interval-ms:2000}")
+    public void flush() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> notificationRepo.saveAll(batch));
+                writtenCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                // log rows are not worth failing a mail over, keep them for the next flush if there is room
+                log.error("Writing {} notification log rows failed: {}", batch.size(), e.getMessage());
+                int requeued = 0;
+                for (Notification notification : batch) {
+                    notification.setId(null);
+                    if (buffer.offer(notification)) {
+                        requeued++;
+                    }
+                }
+                droppedCounter.increment(batch.size() - requeued);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        int pending = buffer.size();
+        flush();
+        if (pending > 0) {
+            log.info("Flushed {} buffered notification log rows on shutdown", pending);
+        }
+    }
+}
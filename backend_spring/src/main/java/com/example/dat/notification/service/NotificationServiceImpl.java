@@ -1,81 +1,61 @@
 package com.example.dat.notification.service;
 
-import com.example.dat.enums.NotificationType;
+import com.example.dat.enums.OutboundEmailStatus;
 import com.example.dat.notification.dto.NotificationDTO;
-import com.example.dat.notification.entity.Notification;
-import com.example.dat.notification.repo.NotificationRepo;
+import com.example.dat.notification.entity.OutboundEmail;
+import com.example.dat.notification.repo.OutboundEmailRepo;
 import com.example.dat.users.entity.User;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService{
 
-    private final NotificationRepo notificationRepo;
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final OutboundEmailRepo outboundEmailRepo;
+    private final EmailRenderer emailRenderer;
 
 
+    /**
+     * Renders the mail and queues it in outbound_emails, EmailDispatcher does the SMTP part.
+     * Joins the caller's transaction: for the outbox relay the queued mail and the
+     * PROCESSED event commit together.
+     */
     @Override
-    @Async
+    @Transactional
     public void sendEmail(NotificationDTO notificationDTO, User user) {
 
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
+        String body;
 
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    mimeMessage,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
+        // Use template if provided
+        if (notificationDTO.getTemplateName() != null){
 
-            helper.setTo(notificationDTO.getRecipient());
-            helper.setSubject(notificationDTO.getSubject());
+            body = emailRenderer.render(notificationDTO.getTemplateName(), notificationDTO.getTemplateVariables());
 
-
-            // Use template if provided
-            if (notificationDTO.getTemplateName() != null){
-
-                Context context = new Context();
-                context.setVariables(notificationDTO.getTemplateVariables());
-                String htmlContent = templateEngine.process(notificationDTO.getTemplateName(), context);
-
-                helper.setText(htmlContent, true);
-
-            }else{
-                helper.setText(notificationDTO.getMessage(), true);
-            }
-
-
-            mailSender.send(mimeMessage);
-            log.info("Email sent out");
-
-
-            //save to our database table
-            Notification notificationToSave = Notification.builder()
-                    .recipient(notificationDTO.getRecipient())
-                    .subject(notificationDTO.getSubject())
-                    .message(notificationDTO.getMessage())
-                    .type(NotificationType.EMAIL)
-                    .user(user)
-                    .build();
-
-            notificationRepo.save(notificationToSave);
-
-        }catch (Exception e){
-            log.info(e.getMessage());
+        }else{
+            body = notificationDTO.getMessage();
         }
 
+        LocalDateTime now = LocalDateTime.now();
+
+        outboundEmailRepo.save(OutboundEmail.builder()
+                .recipient(notificationDTO.getRecipient())
+                .subject(notificationDTO.getSubject())
+                .body(body)
+                .templateName(notificationDTO.getTemplateName())
+                .type(notificationDTO.getType())
+                .user(user != null && user.getId() != null ? user : null)
+                .status(OutboundEmailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        log.info("Email to {} queued", notificationDTO.getRecipient());
     }
 }
@@ -0,0 +1,93 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.notification.entity.OutboundEmail;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes a batch of queued mails through ONE SMTP connection:
+ * JavaMailSender.send(MimeMessage...) connects once and reuses the transport for every message.
+ * Returns the failed ids with their error, everything else was accepted by the server.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+class SmtpBatchSender {
+
+    private final JavaMailSender mailSender;
+
+    Map<Long, String> send(List<OutboundEmail> emails) {
+
+        Map<Long, String> failures = new HashMap<>();
+        Map<MimeMessage, Long> messages = new LinkedHashMap<>();
+
+        for (OutboundEmail email : emails) {
+            try {
+                messages.put(toMimeMessage(email), email.getId());
+            } catch (Exception e) {
+                failures.put(email.getId(), describe(e));
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+
+        } catch (MailSendException e) {
+            // per-message failures, a connect error lists every message here as well
+            e.getFailedMessages().forEach((message, cause) -> {
+                Long id = messages.get(message);
+                if (id != null) {
+                    failures.put(id, describe(cause));
+                }
+            });
+
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> failures.put(id, describe(e)));
+            }
+
+        } catch (MailException e) {
+            // auth / preparation problems fail the whole batch
+            log.warn("SMTP batch of {} failed: {}", messages.size(), e.getMessage());
+            messages.values().forEach(id -> failures.put(id, describe(e)));
+        }
+
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws Exception {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+
+        MimeMessageHelper helper = new MimeMessageHelper(
+                mimeMessage,
+                MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                StandardCharsets.UTF_8.name()
+        );
+
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+
+        return mimeMessage;
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
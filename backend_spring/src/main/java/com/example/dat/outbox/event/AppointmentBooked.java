@@ -0,0 +1,9 @@
+package com.example.dat.outbox.event;
+
+public record AppointmentBooked(Long appointmentId) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return appointmentId;
+    }
+}
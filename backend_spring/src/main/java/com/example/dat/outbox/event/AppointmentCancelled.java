@@ -0,0 +1,9 @@
+package com.example.dat.outbox.event;
+
+public record AppointmentCancelled(Long appointmentId, Long cancelledByUserId) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return appointmentId;
+    }
+}
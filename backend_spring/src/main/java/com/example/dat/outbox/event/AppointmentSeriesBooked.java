@@ -0,0 +1,11 @@
+package com.example.dat.outbox.event;
+
+import java.util.List;
+
+public record AppointmentSeriesBooked(List<Long> appointmentIds) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return appointmentIds.get(0);
+    }
+}
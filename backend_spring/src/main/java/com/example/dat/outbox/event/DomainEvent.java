@@ -0,0 +1,25 @@
+package com.example.dat.outbox.event;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Something that happened in a committed transaction and that other channels (mail for now) react to.
+ * Events only carry ids, the relay loads whatever it needs when it handles them.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.SIMPLE_NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(AppointmentBooked.class),
+        @JsonSubTypes.Type(AppointmentSeriesBooked.class),
+        @JsonSubTypes.Type(AppointmentCancelled.class),
+        @JsonSubTypes.Type(UserRegistered.class),
+        @JsonSubTypes.Type(PasswordResetRequested.class),
+        @JsonSubTypes.Type(PasswordChanged.class)
+})
+public sealed interface DomainEvent
+        permits AppointmentBooked, AppointmentSeriesBooked, AppointmentCancelled,
+        UserRegistered, PasswordResetRequested, PasswordChanged {
+
+    // id of the appointment / user the event is about, stored for lookups and debugging
+    Long aggregateId();
+}
@@ -0,0 +1,10 @@
+package com.example.dat.outbox.event;
+
+// viaResetCode: forgot-password flow vs. change from the profile page, they get different mails
+public record PasswordChanged(Long userId, boolean viaResetCode) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return userId;
+    }
+}
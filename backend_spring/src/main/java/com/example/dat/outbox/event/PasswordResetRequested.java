@@ -0,0 +1,10 @@
+package com.example.dat.outbox.event;
+
+// the reset code itself never goes into the outbox, the notifier looks up the user's current one
+public record PasswordResetRequested(Long userId) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return userId;
+    }
+}
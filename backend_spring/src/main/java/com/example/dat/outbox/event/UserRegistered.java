@@ -0,0 +1,9 @@
+package com.example.dat.outbox.event;
+
+public record UserRegistered(Long userId) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return userId;
+    }
+}
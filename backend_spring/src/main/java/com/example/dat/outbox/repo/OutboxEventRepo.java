@@ -0,0 +1,48 @@
+package com.example.dat.outbox.repo;
+
+import com.example.dat.enums.OutboxEventStatus;
+import com.example.dat.outbox.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepo extends JpaRepository<OutboxEvent, Long> {
+
+    // oldest first, SKIP LOCKED so a second relay instance takes the next batch instead of waiting.
+    // Events backing off after a failure are left alone until next_attempt_at
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSED', e.processedAt = :processedAt WHERE e.id IN :ids")
+    void markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    // PENDING + next_attempt_at for a retry, FAILED once the attempts are used up
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id")
+    void markFailed(@Param("id") Long id,
+                    @Param("status") OutboxEventStatus status,
+                    @Param("attempts") int attempts,
+                    @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                    @Param("lastError") String lastError);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'PROCESSED' AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'FAILED' AND e.createdAt < :before")
+    int deleteFailedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,46 @@
+package com.example.dat.outbox.service;
+
+import com.example.dat.enums.OutboxEventStatus;
+import com.example.dat.outbox.entity.OutboxEvent;
+import com.example.dat.outbox.event.DomainEvent;
+import com.example.dat.outbox.repo.OutboxEventRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes a domain event into outbox_events as part of the caller's transaction:
+ * a rollback drops the event together with the business change, a commit makes it visible to OutboxRelay.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final ObjectMapper objectMapper;
+
+    // MANDATORY: publishing outside a transaction would bring back the "mail despite rollback" problem
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+
+        outboxEventRepo.save(OutboxEvent.builder()
+                .eventType(event.getClass().getSimpleName())
+                .aggregateId(event.aggregateId())
+                .payload(payload)
+                .status(OutboxEventStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
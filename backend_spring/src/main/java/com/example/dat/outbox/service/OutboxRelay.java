@@ -0,0 +1,174 @@
+package com.example.dat.outbox.service;
+
+import com.example.dat.enums.OutboxEventStatus;
+import com.example.dat.notification.service.DomainEventNotifier;
+import com.example.dat.outbox.entity.OutboxEvent;
+import com.example.dat.outbox.event.DomainEvent;
+import com.example.dat.outbox.repo.OutboxEventRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Polls committed outbox events and hands them to the notification channels in batches.
+ * A batch is handled in one transaction: the mails it queues and the PROCESSED flag commit together.
+ * If a batch fails, its events are retried one per transaction so a single bad event
+ * doesn't block everything behind it. A failing event backs off exponentially and is only
+ * marked FAILED after max-attempts. FAILED rows are purged after failed-retention-hours.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final DomainEventNotifier domainEventNotifier;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long retentionHours;
+    private final long failedRetentionHours;
+    private final int maxAttempts;
+    private final long backoffBaseSeconds;
+    private final long backoffMaxSeconds;
+
+    public OutboxRelay(OutboxEventRepo outboxEventRepo,
+                       DomainEventNotifier domainEventNotifier,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.retention-hours:72}") long retentionHours,
+                       @Value("${outbox.failed-retention-hours:336}") long failedRetentionHours,
+                       @Value("${outbox.relay.max-attempts:8}") int maxAttempts,
+                       @Value("${outbox.relay.backoff-base-seconds:10}") long backoffBaseSeconds,
+                       @Value("${outbox.relay.backoff-max-seconds:3600}") long backoffMaxSeconds) {
+        this.outboxEventRepo = outboxEventRepo;
+        this.domainEventNotifier = domainEventNotifier;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        this.failedRetentionHours = failedRetentionHours;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseSeconds = backoffBaseSeconds;
+        this.backoffMaxSeconds = backoffMaxSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        while (true) {
+            int handled;
+            try {
+                handled = transactionTemplate.execute(status -> relayBatch(batchSize));
+            } catch (RuntimeException e) {
+                log.warn("Outbox batch failed, retrying events one by one: {}", e.getMessage());
+                handled = relayOneByOne();
+            }
+
+            if (handled < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int relayBatch(int limit) {
+        List<OutboxEvent> events = outboxEventRepo.lockPending(LocalDateTime.now(), limit);
+
+        for (OutboxEvent event : events) {
+            domainEventNotifier.notify(read(event));
+        }
+
+        if (!events.isEmpty()) {
+            outboxEventRepo.markProcessed(events.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+        }
+        return events.size();
+    }
+
+    private int relayOneByOne() {
+        int handled = 0;
+
+        while (handled < batchSize) {
+            OutboxEvent[] current = new OutboxEvent[1];
+            try {
+                int n = transactionTemplate.execute(status -> {
+                    List<OutboxEvent> events = outboxEventRepo.lockPending(LocalDateTime.now(), 1);
+                    if (events.isEmpty()) {
+                        return 0;
+                    }
+                    current[0] = events.get(0);
+                    return relayEvent(events.get(0));
+                });
+                if (n == 0) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                if (current[0] == null) {
+                    throw e;
+                }
+                recordFailure(current[0], e);
+            }
+            handled++;
+        }
+        return handled;
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        if (attempts >= maxAttempts) {
+            log.error("Outbox event {} failed {} times, marking it FAILED", event.getId(), attempts, e);
+            outboxEventRepo.markFailed(event.getId(), OutboxEventStatus.FAILED, attempts, now, truncate(e.getMessage()));
+        } else {
+            long delay = backoffSeconds(attempts);
+            log.warn("Outbox event {} failed (attempt {}), retrying in {}s: {}", event.getId(), attempts, delay, e.getMessage());
+            outboxEventRepo.markFailed(event.getId(), OutboxEventStatus.PENDING, attempts,
+                    now.plusSeconds(delay), truncate(e.getMessage()));
+        }
+    }
+
+    // base * 2^(attempts - 1), capped: 10s, 20s, 40s ... 1h
+    long backoffSeconds(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(backoffMaxSeconds, backoffBaseSeconds << shift);
+    }
+
+    private int relayEvent(OutboxEvent event) {
+        domainEventNotifier.notify(read(event));
+        outboxEventRepo.markProcessed(List.of(event.getId()), LocalDateTime.now());
+        return 1;
+    }
+
+    private DomainEvent read(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), DomainEvent.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable outbox event " + event.getId(), e);
+        }
+    }
+
+    // processed and failed rows are only kept for troubleshooting
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeProcessed() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = outboxEventRepo.deleteProcessedBefore(now.minusHours(retentionHours));
+        // failed ones stay a bit longer, someone may want to look at last_error
+        int failed = outboxEventRepo.deleteFailedBefore(now.minusHours(failedRetentionHours));
+        if (deleted + failed > 0) {
+            log.info("Purged {} processed and {} failed outbox events", deleted, failed);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
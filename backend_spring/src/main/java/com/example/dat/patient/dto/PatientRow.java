@@ -0,0 +1,35 @@
+package com.example.dat.patient.dto;
+
+import com.example.dat.enums.BloodGroup;
+import com.example.dat.enums.Genotype;
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.dto.UserDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// flat read-only row selected straight from JPQL, no managed Patient/User entities involved
+public record PatientRow(Long id, String firstName, String lastName, LocalDate dateOfBirth, String phone,
+                         String knownAllergies, BloodGroup bloodGroup, Genotype genotype,
+                         Long userId, String userName, String email, String profilePictureUrl) {
+
+    public PatientDTO toDto(List<Role> roles) {
+        return PatientDTO.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .dateOfBirth(dateOfBirth)
+                .phone(phone)
+                .knownAllergies(knownAllergies)
+                .bloodGroup(bloodGroup)
+                .genotype(genotype)
+                .user(UserDTO.builder()
+                        .id(userId)
+                        .name(userName)
+                        .email(email)
+                        .profilePictureUrl(profilePictureUrl)
+                        .roles(roles)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.dat.patient.mapper;
+
+import com.example.dat.patient.dto.PatientDTO;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.users.mapper.UserMapper;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = UserMapper.class)
+public interface PatientMapper {
+
+    PatientDTO toDto(Patient patient);
+}
@@ -1,12 +1,25 @@
 package com.example.dat.patient.repo;
 
+import com.example.dat.patient.dto.PatientRow;
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.users.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface PatientRepo extends JpaRepository<Patient, Long> {
 
     Optional<Patient> findByUser(User user);
+
+    Optional<Patient> findByUserId(Long userId);
+
+    @Query("SELECT p.id FROM Patient p WHERE p.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.dat.patient.dto.PatientRow(p.id, p.firstName, p.lastName, p.dateOfBirth, p.phone, " +
+            "p.knownAllergies, p.bloodGroup, p.genotype, u.id, u.name, u.email, u.profilePictureUrl) " +
+            "FROM Patient p JOIN p.user u WHERE p.id = :patientId")
+    Optional<PatientRow> findRowById(@Param("patientId") Long patientId);
 }
@@ -4,14 +4,15 @@ import com.example.dat.enums.BloodGroup;
 import com.example.dat.enums.Genotype;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.patient.dto.PatientDTO;
+import com.example.dat.patient.dto.PatientRow;
 import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.mapper.PatientMapper;
 import com.example.dat.patient.repo.PatientRepo;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.repo.UserRepo;
+import com.example.dat.users.service.CurrentUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -26,22 +27,21 @@ import java.util.Optional;
 public class PatientServiceImpl implements PatientService{
 
     private final PatientRepo patientRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final CurrentUserContext currentUserContext;
+    private final PatientMapper patientMapper;
+    private final UserRepo userRepo;
 
 
     @Override
     public Response<PatientDTO> getPatientProfile() {
 
-        User user = userService.getCurrentUser();
-
-        Patient patient = patientRepo.findByUser(user)
+        Patient patient = patientRepo.findByUserId(currentUserContext.getUserId())
                 .orElseThrow(()-> new NotFoundException("Patient Not Found"));
 
         return Response.<PatientDTO>builder()
                 .statusCode(200)
                 .message("Patient profile retrieved successfully.")
-                .data(modelMapper.map(patient, PatientDTO.class))
+                .data(patientMapper.toDto(patient))
                 .build();
     }
 
@@ -49,9 +49,7 @@ public class PatientServiceImpl implements PatientService{
     public Response<?> updatePatientProfile(PatientDTO patientDTO) {
 
 
-        User currentUser = userService.getCurrentUser();
-
-        Patient patient = patientRepo.findByUser(currentUser)
+        Patient patient = patientRepo.findByUserId(currentUserContext.getUserId())
                 .orElseThrow(() -> new NotFoundException("Patient profile not found."));
 
 
@@ -91,10 +89,11 @@ public class PatientServiceImpl implements PatientService{
     @Override
     public Response<PatientDTO> getPatientById(Long patientId) {
 
-        Patient patient = patientRepo.findById(patientId)
+        PatientRow patient = patientRepo.findRowById(patientId)
                 .orElseThrow(() -> new NotFoundException("Patient not found with ID: " + patientId));
 
-        PatientDTO patientDTO = modelMapper.map(patient, PatientDTO.class);
+        PatientDTO patientDTO = patient.toDto(userRepo.findRolesByUserIds(List.of(patient.userId()))
+                .getOrDefault(patient.userId(), List.of()));
 
         return Response.<PatientDTO>builder()
                 .statusCode(200)
@@ -13,4 +13,7 @@ public class Response<T> {
     private int statusCode;
     private String message;
     private T data;
+
+    // paged listings only: pass back to get the next page, absent on the last page
+    private String nextCursor;
 }
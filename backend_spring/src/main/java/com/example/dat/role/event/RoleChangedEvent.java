@@ -0,0 +1,7 @@
+package com.example.dat.role.event;
+
+/**
+ * Published when a role is renamed or deleted. Every user holding it is affected.
+ */
+public record RoleChangedEvent(Long roleId) {
+}
@@ -3,8 +3,10 @@ package com.example.dat.role.service;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.res.Response;
 import com.example.dat.role.entity.Role;
+import com.example.dat.role.event.RoleChangedEvent;
 import com.example.dat.role.repo.RoleRepo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepo roleRepo;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -38,6 +41,8 @@ public class RoleServiceImpl implements RoleService {
         role.setName(roleRequest.getName());
 
         Role updatedRole = roleRepo.save(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(updatedRole.getId()));
+
         return Response.<Role>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Role updated successfully")
@@ -64,6 +69,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepo.deleteById(id);
+        eventPublisher.publishEvent(new RoleChangedEvent(id));
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -15,7 +15,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -28,44 +27,22 @@ public class AuthFilter extends OncePerRequestFilter {
 
     private final JwtService tokenService;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
-    private final CustomUserDetailsService customUserDetailsService;
-
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
-
-    // Routes that DO NOT require authentication
-    private static final String[] PUBLIC_URLS = {
-            "/api/auth/**",
-            "/api/doctors/**",
-            "/",
-            "/index.html",
-            "/favicon.ico",
-            "/static/**",
-            "/assets/**",
-            "/*.js",
-            "/*.css",
-
-            // Swagger (optional)
-            "/swagger-ui/**",
-            "/v3/api-docs/**"
-    };
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationService tokenRevocationService;
+
+    // Routes that DO NOT require authentication (shared with SecurityFilter)
+    private final PublicRoutes publicRoutes;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
 
-        String path = request.getServletPath();
-
         // ALWAYS skip OPTIONS preflight → necessary for React CORS
         if (HttpMethod.OPTIONS.matches(request.getMethod())) {
             return true;
         }
 
-        for (String pattern : PUBLIC_URLS) {
-            if (pathMatcher.match(pattern, path)) {
-                return true; // no JWT required
-            }
-        }
-
-        return false; // JWT required
+        // no JWT required for public routes, everything else needs one
+        return publicRoutes.matches(request);
     }
 
     @Override
@@ -78,10 +55,26 @@ public class AuthFilter extends OncePerRequestFilter {
 
         if (token != null) {
             try {
-                String email = tokenService.getUsernameFromToken(token);
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
+                // parse + verify once, the result is reused below
+                VerifiedToken verifiedToken = tokenService.verifyToken(token);
+
+                // logged out tokens -> bloom filter answers "not revoked" for almost every request
+                if (tokenRevocationService.isRevoked(verifiedToken.tokenId())) {
+                    throw new BadCredentialsException("Token has been revoked");
+                }
+
+                // legacy tokens without id/version claims can't be checked against password changes
+                if (!verifiedToken.isSelfContained()) {
+                    throw new BadCredentialsException("Token format is no longer supported, please log in again");
+                }
+
+                // tokens issued before a password change are no longer accepted
+                if (!tokenVersionRegistry.isCurrent(verifiedToken.userId(), verifiedToken.tokenVersion())) {
+                    throw new BadCredentialsException("Token has been invalidated");
+                }
+                UserDetails userDetails = verifiedToken.principal();
 
-                if (tokenService.isTokenValid(token, userDetails)) {
+                if (tokenService.isTokenValid(verifiedToken, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -0,0 +1,87 @@
+package com.example.dat.security;
+
+import com.example.dat.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throttles the unauthenticated auth endpoints per client IP and per target email,
+ * so brute force / abuse traffic is rejected before any BCrypt work, DB write or email send.
+ */
+@Component
+@Slf4j
+public class AuthRateLimiter {
+
+    private final TokenBucketLimiter loginPerIp;
+    private final TokenBucketLimiter loginPerEmail;
+    private final TokenBucketLimiter forgotPerIp;
+    private final TokenBucketLimiter forgotPerEmail;
+    private final TokenBucketLimiter resetPerIp;
+
+    private final Counter loginRejected;
+    private final Counter forgotRejected;
+    private final Counter resetRejected;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${auth.rate-limit.login.ip.capacity:20}") long loginIpCapacity,
+                           @Value("${auth.rate-limit.login.ip.refill-per-minute:10}") long loginIpRefill,
+                           @Value("${auth.rate-limit.login.email.capacity:5}") long loginEmailCapacity,
+                           @Value("${auth.rate-limit.login.email.refill-per-minute:2}") long loginEmailRefill,
+                           @Value("${auth.rate-limit.forgot.ip.capacity:5}") long forgotIpCapacity,
+                           @Value("${auth.rate-limit.forgot.ip.refill-per-minute:2}") long forgotIpRefill,
+                           @Value("${auth.rate-limit.forgot.email.capacity:3}") long forgotEmailCapacity,
+                           @Value("${auth.rate-limit.forgot.email.refill-per-minute:1}") long forgotEmailRefill,
+                           @Value("${auth.rate-limit.reset.ip.capacity:10}") long resetIpCapacity,
+                           @Value("${auth.rate-limit.reset.ip.refill-per-minute:5}") long resetIpRefill) {
+
+        this.loginPerIp = new TokenBucketLimiter(loginIpCapacity, loginIpRefill);
+        this.loginPerEmail = new TokenBucketLimiter(loginEmailCapacity, loginEmailRefill);
+        this.forgotPerIp = new TokenBucketLimiter(forgotIpCapacity, forgotIpRefill);
+        this.forgotPerEmail = new TokenBucketLimiter(forgotEmailCapacity, forgotEmailRefill);
+        this.resetPerIp = new TokenBucketLimiter(resetIpCapacity, resetIpRefill);
+
+        this.loginRejected = Counter.builder("auth.rate_limit.rejected").tag("endpoint", "login").register(meterRegistry);
+        this.forgotRejected = Counter.builder("auth.rate_limit.rejected").tag("endpoint", "forgot-password").register(meterRegistry);
+        this.resetRejected = Counter.builder("auth.rate_limit.rejected").tag("endpoint", "reset-password").register(meterRegistry);
+    }
+
+    public void checkLogin(String ip, String email) {
+        if (!loginPerIp.tryAcquire(ip) || !loginPerEmail.tryAcquire(normalize(email))) {
+            loginRejected.increment();
+            throw new TooManyRequestsException("Too many login attempts. Please try again later.");
+        }
+    }
+
+    public void checkForgotPassword(String ip, String email) {
+        if (!forgotPerIp.tryAcquire(ip) || !forgotPerEmail.tryAcquire(normalize(email))) {
+            forgotRejected.increment();
+            throw new TooManyRequestsException("Too many password reset requests. Please try again later.");
+        }
+    }
+
+    public void checkResetPassword(String ip) {
+        if (!resetPerIp.tryAcquire(ip)) {
+            resetRejected.increment();
+            throw new TooManyRequestsException("Too many password reset attempts. Please try again later.");
+        }
+    }
+
+    // full buckets hold no information, drop them so the maps only track active clients
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        for (TokenBucketLimiter limiter : List.of(loginPerIp, loginPerEmail, forgotPerIp, forgotPerEmail, resetPerIp)) {
+            limiter.evictIdle();
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -8,21 +8,30 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.List;
 
 @Data
-@Builder
 public class AuthUser implements UserDetails {
 
     private final User user;
 
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles()
+    // built once, getAuthorities() is called several times per request by spring security
+    private final List<GrantedAuthority> authorities;
+
+    @Builder
+    public AuthUser(User user) {
+        this.user = user;
+        this.authorities = user.getRoles() == null ? List.of() : user.getRoles()
                 .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.getName()))
                 .toList();
     }
 
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
     @Override
     public String getPassword() {
         return user.getPassword();
@@ -1,28 +1,82 @@
 package com.example.dat.security;
 
+import com.example.dat.cache.ExpiringCache;
 import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.role.event.RoleChangedEvent;
 import com.example.dat.users.entity.User;
+import com.example.dat.users.event.UserUpdatedEvent;
 import com.example.dat.users.repo.UserRepo;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepo userRepo;
 
+    // email -> AuthUser (id, email, roles), saves the user_roles join for repeated logins of the same users.
+    // The password hash is never cached, login always checks it against the DB.
+    private final ExpiringCache<String, AuthUser> cache;
+    private final long ttlMillis;
+
+    public CustomUserDetailsService(UserRepo userRepo,
+                                    @Value("${security.user-cache.max-size:5000}") int maxSize,
+                                    @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.cache = new ExpiringCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-
-        User user = userRepo.findByEmail(email)
+        return findByEmail(email)
                 .orElseThrow(() -> new NotFoundException("User not found: " + email));
+    }
+
+    public Optional<AuthUser> findByEmail(String email) {
+
+        AuthUser cached = cache.get(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<AuthUser> authUser = userRepo.findByEmail(email)
+                .map(user -> AuthUser.builder()
+                        .user(withoutCredentials(user))
+                        .build());
 
-        return AuthUser.builder()
-                .user(user)
+        authUser.ifPresent(u -> cache.put(email, u, System.currentTimeMillis() + ttlMillis));
+        return authUser;
+    }
+
+    private static User withoutCredentials(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .roles(user.getRoles() == null ? List.of() : List.copyOf(user.getRoles()))
                 .build();
     }
+
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        cache.invalidate(event.email());
+    }
+
+    @EventListener
+    public void onRoleChanged(RoleChangedEvent event) {
+        // we don't index users by role, a role change is rare enough to just start over
+        cache.invalidateAll();
+    }
+
+    public ExpiringCache<String, AuthUser> getCache() {
+        return cache;
+    }
 }
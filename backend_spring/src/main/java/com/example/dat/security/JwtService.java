@@ -1,9 +1,13 @@
 package com.example.dat.security;
 
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -12,11 +16,19 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
     @Value("${jwt.secret.string}")
     private String JWT_SECRET;
 
@@ -25,40 +37,94 @@ public class JwtService {
 
     private SecretKey key;
 
+    // parser is immutable and thread-safe, build it once instead of per call
+    private JwtParser parser;
+
     @PostConstruct
     private void init() {
         byte[] keyBytes = JWT_SECRET.getBytes(StandardCharsets.UTF_8);
         this.key = new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
-    public String generateToken(String email) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
+                .setId(UUID.randomUUID().toString()) // jti, used to revoke this token on logout
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, user.getRoles().stream().map(Role::getName).toList())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verifies signature and expiry exactly once and returns the parsed claims.
+     * Tokens seen before are served from the cache until they expire.
+     * Throws a JwtException if the token is invalid or expired.
+     */
+    public VerifiedToken verifyToken(String token) {
+
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        Number uid = claims.get(USER_ID_CLAIM, Number.class);
+        Number ver = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+
+        Long userId = uid == null ? null : uid.longValue();
+        int tokenVersion = ver == null ? 0 : ver.intValue();
+
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getId(),
+                claims.getExpiration().getTime(),
+                userId,
+                tokenVersion,
+                userId == null ? null : buildPrincipal(claims, userId, tokenVersion),
+                claims
+        );
+
+        verifiedTokenCache.put(token, verified);
+        return verified;
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return resolver.apply(claims);
+    // lightweight principal straight from the claims, no DB lookup
+    private AuthUser buildPrincipal(Claims claims, Long userId, int tokenVersion) {
+        List<?> roleNames = claims.get(ROLES_CLAIM, List.class);
+
+        List<Role> roles = roleNames == null ? List.of() : roleNames.stream()
+                .map(name -> Role.builder().name(String.valueOf(name)).build())
+                .toList();
+
+        User user = User.builder()
+                .id(userId)
+                .email(claims.getSubject())
+                .roles(roles)
+                .tokenVersion(tokenVersion)
+                .build();
+
+        return AuthUser.builder()
+                .user(user)
+                .build();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = getUsernameFromToken(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    public String getUsernameFromToken(String token) {
+        return verifyToken(token).subject();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public boolean isTokenValid(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return verifiedToken.subject().equals(userDetails.getUsername()) && !verifiedToken.isExpired();
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verifyToken(token), userDetails);
     }
 }
@@ -0,0 +1,138 @@
+package com.example.dat.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single registry of routes that DO NOT require authentication.
+ * Used by SecurityFilter (permitAll, as a RequestMatcher) and by AuthFilter (skip JWT processing).
+ *
+ * The patterns are compiled once at startup:
+ *  - exact paths ("/index.html")     -> hash lookup
+ *  - prefix paths ("/api/auth/**")   -> segment trie, walked once over the request path
+ *  - anything else ("/*.js")         -> pre-parsed PathPattern
+ */
+@Component
+public class PublicRoutes implements RequestMatcher {
+
+    static final String[] PATTERNS = {
+            "/api/auth/**",
+            "/api/doctors/**",
+            "/",
+            "/index.html",
+            "/favicon.ico",
+            "/error",
+            "/static/**",
+            "/assets/**",
+            "/images/**",
+            "/*.js",
+            "/*.css",
+
+            // Swagger (optional)
+            "/swagger-ui/**",
+            "/swagger-ui.html",
+            "/v3/api-docs/**"
+    };
+
+    private final Set<String> exactPaths = new HashSet<>();
+    private final TrieNode prefixRoot = new TrieNode();
+    private final List<PathPattern> otherPatterns = new ArrayList<>();
+
+    public PublicRoutes() {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+
+        for (String pattern : PATTERNS) {
+            if (pattern.endsWith("/**") && isLiteral(pattern.substring(0, pattern.length() - 3))) {
+                addPrefix(pattern.substring(0, pattern.length() - 3));
+            } else if (isLiteral(pattern)) {
+                exactPaths.add(pattern);
+            } else {
+                otherPatterns.add(parser.parse(pattern));
+            }
+        }
+    }
+
+    // same servlet path spring security's own matchers use
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return matches(request.getServletPath());
+    }
+
+    public boolean matches(String path) {
+
+        if (exactPaths.contains(path) || matchesPrefix(path)) {
+            return true;
+        }
+
+        if (!otherPatterns.isEmpty()) {
+            PathContainer container = PathContainer.parsePath(path);
+            for (PathPattern pattern : otherPatterns) {
+                if (pattern.matches(container)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matchesPrefix(String path) {
+        TrieNode node = prefixRoot;
+        int start = 1; // skip leading '/'
+
+        while (true) {
+            if (node.matchAll) {
+                return true;
+            }
+            if (start >= path.length()) {
+                return false;
+            }
+
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+
+            // "/api/auth/**" also matches "/api/auth" and "/api/auth/"
+            if (start >= path.length()) {
+                return node.matchAll;
+            }
+        }
+    }
+
+    private void addPrefix(String prefix) {
+        TrieNode node = prefixRoot;
+        for (String segment : prefix.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.children.computeIfAbsent(segment, s -> new TrieNode());
+            }
+        }
+        node.matchAll = true;
+    }
+
+    private static boolean isLiteral(String pattern) {
+        return pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0 && pattern.indexOf('{') < 0;
+    }
+
+    private static final class TrieNode {
+        private final Map<String, TrieNode> children = new HashMap<>();
+        private boolean matchAll;
+    }
+}
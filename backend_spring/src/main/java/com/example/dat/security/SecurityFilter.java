@@ -3,6 +3,7 @@ package com.example.dat.security;
 import com.example.dat.exceptions.CustomAccessDenialHandler;
 import com.example.dat.exceptions.CustomAuthenticationEntryPoint;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -30,21 +31,7 @@ public class SecurityFilter {
     private final CustomAccessDenialHandler customAccessDenialHandler;
 
     // PUBLIC ROUTES
-    private static final String[] PUBLIC_URLS = {
-            "/api/auth/**",
-            "/api/doctors/**",
-            "/static/**",
-            "/images/**",
-            "/",
-            "/index.html",
-            "/favicon.ico",
-            "/error",
-
-            // Optional Swagger (remove if not needed)
-            "/v3/api-docs/**",
-            "/swagger-ui/**",
-            "/swagger-ui.html"
-    };
+    private final PublicRoutes publicRoutes;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -66,7 +53,9 @@ public class SecurityFilter {
                 // Public & Private Routes
                 .authorizeHttpRequests(req -> req
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()  // CORS preflight
-                        .requestMatchers(PUBLIC_URLS).permitAll()
+                        .requestMatchers(publicRoutes).permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")   // metrics, cache stats/clear
                         .anyRequest().authenticated()
                 )
 
@@ -77,8 +66,8 @@ public class SecurityFilter {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
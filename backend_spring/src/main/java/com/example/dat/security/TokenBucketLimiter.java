@@ -0,0 +1,69 @@
+package com.example.dat.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyed token buckets (one bucket per IP / email ...).
+ * Each bucket is locked on its own, so unrelated keys never contend.
+ * Buckets that have refilled completely carry no state and are dropped by evictIdle().
+ */
+public class TokenBucketLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(long capacity, long refillPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+    }
+
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        return bucket.tryAcquire(now);
+    }
+
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> e.getValue().isFull(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.dat.security;
+
+import com.example.dat.cache.BloomFilter;
+import com.example.dat.users.entity.RevokedToken;
+import com.example.dat.users.repo.RevokedTokenRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deny-list of revoked (logged out) tokens, keyed by jti.
+ *
+ * A Bloom filter sits in front of the map: for the common case (token not revoked)
+ * AuthFilter gets its answer from a few bit probes without allocating.
+ * The table is the source of truth, so the list survives restarts and is shared between nodes;
+ * expired entries are purged since the token would be rejected anyway.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepo revokedTokenRepo;
+    private final int expectedRevocations;
+
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationService(RevokedTokenRepo revokedTokenRepo,
+                                  @Value("${security.revocation.expected-revocations:100000}") int expectedRevocations) {
+        this.revokedTokenRepo = revokedTokenRepo;
+        this.expectedRevocations = expectedRevocations;
+    }
+
+    @PostConstruct
+    void rebuildFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (RevokedToken token : revokedTokenRepo.findByExpiresAtAfter(now)) {
+            revoked.put(token.getTokenId(), toMillis(token.getExpiresAt()));
+        }
+        lastSync = now;
+        rebuildBloomFilter();
+
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || isRevoked(tokenId)) {
+            return;
+        }
+
+        try {
+            revokedTokenRepo.save(RevokedToken.builder()
+                    .tokenId(tokenId)
+                    .expiresAt(toDateTime(expiresAtMillis))
+                    .revokedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // already revoked by a concurrent request / another node
+            log.debug("Token {} already revoked", tokenId);
+        }
+
+        remember(tokenId, expiresAtMillis);
+    }
+
+    // picks up revocations written by other nodes
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:30000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // overlap a little so rows committed around the previous sync are not missed
+        for (RevokedToken token : revokedTokenRepo.findByRevokedAtAfter(lastSync.minusMinutes(1))) {
+            remember(token.getTokenId(), toMillis(token.getExpiresAt()));
+        }
+        lastSync = now;
+    }
+
+    // bloom filters can't delete, so drop expired entries and rebuild the filter from what's left
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+
+        revoked.entrySet().removeIf(e -> e.getValue() <= now);
+        rebuildBloomFilter();
+
+        int deleted = revokedTokenRepo.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired revoked tokens", deleted);
+    }
+
+    private void remember(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(tokenId, expiresAtMillis);
+        bloomFilter.put(tokenId);
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), 0.01);
+        for (Map.Entry<String, Long> e : revoked.entrySet()) {
+            filter.put(e.getKey());
+        }
+        this.bloomFilter = filter;
+
+        // entries added while we were copying could be missing from the new filter
+        for (String tokenId : revoked.keySet()) {
+            filter.put(tokenId);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dat.security;
+
+import com.example.dat.users.dto.UserTokenVersion;
+import com.example.dat.users.repo.UserRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the current token version of every user that ever changed their password.
+ * Lets AuthFilter reject tokens issued before a password change without touching the DB.
+ * Users missing from the map are on version 0.
+ * Bumps made on other nodes are pulled in periodically (users.token_version_changed_at),
+ * the same way TokenRevocationService syncs logouts.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private final UserRepo userRepo;
+
+    private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    // newest token_version_changed_at seen so far, never this node's clock:
+    // the column is written by whichever node handled the password change
+    private volatile LocalDateTime lastSync = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @PostConstruct
+    void load() {
+        for (UserTokenVersion v : userRepo.findBumpedTokenVersions()) {
+            record(v);
+        }
+        log.info("Loaded token versions for {} users", versions.size());
+    }
+
+    // picks up password changes made on other nodes
+    @Scheduled(fixedDelayString = "${security.token-version.sync-interval-ms:10000}")
+    public void syncFromDatabase() {
+        // overlap a little so rows committed late or stamped by a node with a slower clock are not missed,
+        // record() keeps the max
+        for (UserTokenVersion v : userRepo.findTokenVersionsChangedSince(lastSync.minusMinutes(1))) {
+            record(v);
+        }
+    }
+
+    private void record(UserTokenVersion v) {
+        record(v.userId(), v.tokenVersion());
+        if (v.changedAt() != null && v.changedAt().isAfter(lastSync)) {
+            lastSync = v.changedAt();
+        }
+    }
+
+    public int currentVersion(Long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    public void record(Long userId, int tokenVersion) {
+        versions.merge(userId, tokenVersion, Math::max);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.dat.security;
+
+import com.example.dat.cache.ExpiringCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/userdetailscache -> stats, DELETE -> clear
+@Component
+@Endpoint(id = "userdetailscache")
+@RequiredArgsConstructor
+public class UserDetailsCacheEndpoint {
+
+    private final CustomUserDetailsService customUserDetailsService;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        ExpiringCache<String, AuthUser> cache = customUserDetailsService.getCache();
+
+        long hits = cache.hitCount();
+        long misses = cache.missCount();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxSize", cache.maxSize());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", cache.evictionCount());
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        customUserDetailsService.getCache().invalidateAll();
+    }
+}
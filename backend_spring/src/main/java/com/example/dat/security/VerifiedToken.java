@@ -0,0 +1,25 @@
+package com.example.dat.security;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Result of a single signature + expiry check of a JWT.
+ * The principal is built from the claims once and reused for as long as the token is cached.
+ * userId and principal are null for tokens issued before the id/roles claims existed.
+ */
+public record VerifiedToken(String subject,
+                            String tokenId,
+                            long expiresAtMillis,
+                            Long userId,
+                            int tokenVersion,
+                            AuthUser principal,
+                            Claims claims) {
+
+    public boolean isExpired() {
+        return expiresAtMillis <= System.currentTimeMillis();
+    }
+
+    public boolean isSelfContained() {
+        return principal != null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.dat.security;
+
+import com.example.dat.cache.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Cache of tokens that already passed signature verification.
+ * Keyed by a SHA-256 digest of the raw token (we never keep bearer tokens in memory)
+ * and every entry expires together with the token itself.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final ExpiringCache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = new ExpiringCache<>(maxSize);
+
+        FunctionCounter.builder("jwt.cache.hits", cache, ExpiringCache::hitCount)
+                .description("Tokens served from the verified-token cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.misses", cache, ExpiringCache::missCount)
+                .description("Tokens that needed a full parse and signature check")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", cache, ExpiringCache::size)
+                .register(meterRegistry);
+    }
+
+    public VerifiedToken get(String token) {
+        return cache.get(digest(token));
+    }
+
+    public void put(String token, VerifiedToken verifiedToken) {
+        cache.put(digest(token), verifiedToken, verifiedToken.expiresAtMillis());
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,16 +2,19 @@ package com.example.dat.users.controller;
 
 
 import com.example.dat.res.Response;
+import com.example.dat.security.AuthRateLimiter;
 import com.example.dat.users.dto.LoginRequest;
 import com.example.dat.users.dto.LoginResponse;
 import com.example.dat.users.dto.RegistrationRequest;
 import com.example.dat.users.dto.ResetPasswordRequest;
 import com.example.dat.users.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -21,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<Response<String >> register(@RequestBody @Valid RegistrationRequest registrationRequest){
@@ -28,17 +32,29 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Response<LoginResponse>> login(@RequestBody @Valid LoginRequest loginRequest){
+    public ResponseEntity<Response<LoginResponse>> login(@RequestBody @Valid LoginRequest loginRequest,
+                                                         HttpServletRequest request){
+        authRateLimiter.checkLogin(request.getRemoteAddr(), loginRequest.getEmail());
         return ResponseEntity.ok(authService.login(loginRequest));
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<Response<?>> forgotPassword(@RequestBody ResetPasswordRequest resetPasswordRequest){
+    public ResponseEntity<Response<?>> forgotPassword(@RequestBody ResetPasswordRequest resetPasswordRequest,
+                                                      HttpServletRequest request){
+        authRateLimiter.checkForgotPassword(request.getRemoteAddr(), resetPasswordRequest.getEmail());
         return ResponseEntity.ok(authService.forgetPassword(resetPasswordRequest.getEmail()));
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<Response<?>> resetPassword(@RequestBody ResetPasswordRequest resetPasswordRequest){
+    public ResponseEntity<Response<?>> resetPassword(@RequestBody ResetPasswordRequest resetPasswordRequest,
+                                                     HttpServletRequest request){
+        authRateLimiter.checkResetPassword(request.getRemoteAddr());
         return ResponseEntity.ok(authService.updatePasswordViaResetCode(resetPasswordRequest));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Response<?>> logout(@RequestHeader(value = "Authorization", required = false) String authorization){
+        String token = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        return ResponseEntity.ok(authService.logout(token));
+    }
 }
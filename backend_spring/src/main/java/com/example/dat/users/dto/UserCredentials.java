@@ -0,0 +1,5 @@
+package com.example.dat.users.dto;
+
+// what login needs from the users row, always read fresh from the DB (never cached)
+public record UserCredentials(Long id, String email, String password, int tokenVersion) {
+}
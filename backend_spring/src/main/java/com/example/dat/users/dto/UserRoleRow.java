@@ -0,0 +1,4 @@
+package com.example.dat.users.dto;
+
+public record UserRoleRow(Long userId, Long roleId, String roleName) {
+}
@@ -0,0 +1,19 @@
+package com.example.dat.users.dto;
+
+import com.example.dat.role.entity.Role;
+
+import java.util.List;
+
+// flat read-only row selected straight from JPQL (password never leaves the DB)
+public record UserRow(Long id, String name, String email, String profilePictureUrl) {
+
+    public UserDTO toDto(List<Role> roles) {
+        return UserDTO.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .profilePictureUrl(profilePictureUrl)
+                .roles(roles)
+                .build();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.dat.users.dto;
+
+import java.time.LocalDateTime;
+
+public record UserTokenVersion(Long userId, int tokenVersion, LocalDateTime changedAt) {
+}
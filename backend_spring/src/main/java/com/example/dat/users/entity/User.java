@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -33,6 +34,13 @@ public class User {
 
     private String profilePictureUrl;
 
+    // bumped on every password change, tokens carrying an older version are rejected
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    // when tokenVersion last changed, lets other nodes pull only the recent bumps
+    private LocalDateTime tokenVersionChangedAt;
+
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"),
     inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -0,0 +1,8 @@
+package com.example.dat.users.event;
+
+/**
+ * Published whenever data carried by a user's security principal changes
+ * (password, profile details). Listeners drop anything cached for that email.
+ */
+public record UserUpdatedEvent(String email) {
+}
@@ -0,0 +1,14 @@
+package com.example.dat.users.mapper;
+
+import com.example.dat.users.dto.UserDTO;
+import com.example.dat.users.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    // the hash never goes into a DTO
+    @Mapping(target = "password", ignore = true)
+    UserDTO toDto(User user);
+}
@@ -10,4 +10,7 @@ public interface PasswordResetRepo extends JpaRepository<PasswordResetCode, Long
     Optional<PasswordResetCode> findByCode(String code);
     void deleteByUserId(Long userId);
 
+    // forgetPassword replaces older codes, so this is the one the user was just sent
+    Optional<PasswordResetCode> findFirstByUserIdOrderByIdDesc(Long userId);
+
 }
@@ -1,11 +1,85 @@
 package com.example.dat.users.repo;
 
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.dto.UserCredentials;
+import com.example.dat.users.dto.UserRoleRow;
+import com.example.dat.users.dto.UserRow;
+import com.example.dat.users.dto.UserTokenVersion;
 import com.example.dat.users.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserRepo extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT new com.example.dat.users.dto.UserCredentials(u.id, u.email, u.password, u.tokenVersion) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    // compare-and-set on the old hash, a concurrent password change wins over the login rehash
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") Long id,
+                                  @Param("oldHash") String oldHash,
+                                  @Param("newHash") String newHash);
+
+    @Query("SELECT new com.example.dat.users.dto.UserTokenVersion(u.id, u.tokenVersion, u.tokenVersionChangedAt) " +
+            "FROM User u WHERE u.tokenVersion > 0")
+    List<UserTokenVersion> findBumpedTokenVersions();
+
+    @Query("SELECT new com.example.dat.users.dto.UserTokenVersion(u.id, u.tokenVersion, u.tokenVersionChangedAt) " +
+            "FROM User u WHERE u.tokenVersionChangedAt > :since")
+    List<UserTokenVersion> findTokenVersionsChangedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.example.dat.users.dto.UserRow(u.id, u.name, u.email, u.profilePictureUrl) " +
+            "FROM User u ORDER BY u.id")
+    List<UserRow> findAllRows();
+
+    // every user's roles in one pass over user_roles, no id list to bind
+    @Query("SELECT new com.example.dat.users.dto.UserRoleRow(u.id, r.id, r.name) " +
+            "FROM User u JOIN u.roles r")
+    List<UserRoleRow> findAllRoleRows();
+
+    @Query("SELECT new com.example.dat.users.dto.UserRoleRow(u.id, r.id, r.name) " +
+            "FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleRow> findRoleRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // IN lists are bound in chunks so a big listing never turns into one huge statement
+    int ROLE_LOOKUP_CHUNK = 1000;
+
+    // roles of many users, as detached Role values keyed by user id
+    default Map<Long, List<Role>> findRolesByUserIds(Collection<Long> userIds) {
+        Map<Long, List<Role>> roles = new HashMap<>();
+        List<Long> ids = List.copyOf(userIds);
+        for (int from = 0; from < ids.size(); from += ROLE_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ROLE_LOOKUP_CHUNK, ids.size()));
+            groupRoles(findRoleRowsByUserIds(chunk), roles);
+        }
+        return roles;
+    }
+
+    default Map<Long, List<Role>> findAllRoles() {
+        return groupRoles(findAllRoleRows(), new HashMap<>());
+    }
+
+    private static Map<Long, List<Role>> groupRoles(List<UserRoleRow> rows, Map<Long, List<Role>> roles) {
+        for (UserRoleRow row : rows) {
+            roles.computeIfAbsent(row.userId(), id -> new ArrayList<>())
+                    .add(Role.builder().id(row.roleId()).name(row.roleName()).build());
+        }
+        return roles;
+    }
 }
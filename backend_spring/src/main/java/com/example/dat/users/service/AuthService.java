@@ -15,4 +15,6 @@ public interface AuthService {
     Response<?> forgetPassword(String email);
 
     Response<?> updatePasswordViaResetCode(ResetPasswordRequest resetPasswordRequest);
+
+    Response<?> logout(String token);
 }
@@ -4,33 +4,43 @@ import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.doctor.repo.DoctorRepo;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
-import com.example.dat.notification.dto.NotificationDTO;
-import com.example.dat.notification.service.NotificationService;
+import com.example.dat.outbox.event.PasswordChanged;
+import com.example.dat.outbox.event.PasswordResetRequested;
+import com.example.dat.outbox.event.UserRegistered;
+import com.example.dat.outbox.service.OutboxPublisher;
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.patient.repo.PatientRepo;
 import com.example.dat.res.Response;
 import com.example.dat.role.entity.Role;
 import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.security.AuthUser;
+import com.example.dat.security.CustomUserDetailsService;
 import com.example.dat.security.JwtService;
+import com.example.dat.security.PasswordHashingService;
+import com.example.dat.security.TokenRevocationService;
+import com.example.dat.security.TokenVersionRegistry;
+import com.example.dat.security.VerifiedToken;
 import com.example.dat.users.dto.LoginRequest;
 import com.example.dat.users.dto.LoginResponse;
 import com.example.dat.users.dto.RegistrationRequest;
 import com.example.dat.users.dto.ResetPasswordRequest;
+import com.example.dat.users.dto.UserCredentials;
 import com.example.dat.users.entity.PasswordResetCode;
 import com.example.dat.users.entity.User;
+import com.example.dat.users.event.UserUpdatedEvent;
 import com.example.dat.users.repo.PasswordResetRepo;
 import com.example.dat.users.repo.UserRepo;
 
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -40,19 +50,18 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepo userRepo;
     private final RoleRepo roleRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-    private final NotificationService notificationService;
     private final PatientRepo patientRepo;
     private final DoctorRepo doctorRepo;
     private final PasswordResetRepo passwordResetRepo;
     private final CodeGenerator codeGenerator;
-
-    @Value("${password.reset.link}")
-    private String resetLink;
-
-    @Value("${login.link}")
-    private String loginLink;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenRevocationService tokenRevocationService;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
 
 
     // REGISTER USER
@@ -91,25 +100,29 @@ public class AuthServiceImpl implements AuthService {
         // Create User
         User newUser = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .name(request.getName())
                 .roles(roles)
                 .build();
 
-        User savedUser = userRepo.save(newUser);
-
-        // Create profiles
-        for (Role role : roles) {
-            if (role.getName().equals("PATIENT")) {
-                createPatientProfile(savedUser);
-            }
-            if (role.getName().equals("DOCTOR")) {
-                createDoctorProfile(request, savedUser);   // <-- FIXED WITH FIRST/LAST NAME
+        // user, profiles and the welcome mail event commit together (hashing stays outside the transaction)
+        User savedUser = transactionTemplate.execute(status -> {
+            User user = userRepo.save(newUser);
+
+            // Create profiles
+            for (Role role : roles) {
+                if (role.getName().equals("PATIENT")) {
+                    createPatientProfile(user);
+                }
+                if (role.getName().equals("DOCTOR")) {
+                    createDoctorProfile(request, user);   // <-- FIXED WITH FIRST/LAST NAME
+                }
             }
-        }
 
-        // Send Welcome Email
-        sendRegistrationEmail(request, savedUser);
+            // Send Welcome Email
+            outboxPublisher.publish(new UserRegistered(user.getId()));
+            return user;
+        });
 
         return Response.<String>builder()
                 .statusCode(200)
@@ -125,14 +138,32 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public Response<LoginResponse> login(LoginRequest loginRequest) {
 
-        User user = userRepo.findByEmail(loginRequest.getEmail())
+        // the password hash and token version always come straight from the DB
+        UserCredentials credentials = userRepo.findCredentialsByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new NotFoundException("Email not found"));
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), credentials.password())) {
             throw new BadRequestException("Invalid password");
         }
 
-        String token = jwtService.generateToken(user.getEmail());
+        // cost factor was raised since this hash was made -> upgrade it while we have the raw password
+        // (only if the hash wasn't changed meanwhile, e.g. by a concurrent password reset)
+        if (passwordHashingService.needsRehash(credentials.password())) {
+            userRepo.updatePasswordIfUnchanged(credentials.id(), credentials.password(),
+                    passwordHashingService.encode(loginRequest.getPassword()));
+        }
+
+        // roles are served from the user details cache for users that logged in recently
+        User user = customUserDetailsService.findByEmail(credentials.email())
+                .map(AuthUser::getUser)
+                .orElseThrow(() -> new NotFoundException("Email not found"));
+
+        String token = jwtService.generateToken(User.builder()
+                .id(credentials.id())
+                .email(credentials.email())
+                .roles(user.getRoles())
+                .tokenVersion(credentials.tokenVersion())
+                .build());
 
         LoginResponse loginResponse = LoginResponse.builder()
                 .token(token)
@@ -156,30 +187,22 @@ public class AuthServiceImpl implements AuthService {
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        passwordResetRepo.deleteByUserId(user.getId());
-
         String code = codeGenerator.generateUniqueCode();
 
-        PasswordResetCode resetCode = PasswordResetCode.builder()
-                .user(user)
-                .code(code)
-                .expiryDate(LocalDateTime.now().plusHours(5))
-                .used(false)
-                .build();
+        transactionTemplate.executeWithoutResult(status -> {
+            passwordResetRepo.deleteByUserId(user.getId());
 
-        passwordResetRepo.save(resetCode);
+            PasswordResetCode resetCode = PasswordResetCode.builder()
+                    .user(user)
+                    .code(code)
+                    .expiryDate(LocalDateTime.now().plusHours(5))
+                    .used(false)
+                    .build();
 
-        NotificationDTO passwordResetEmail = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Password Reset Request")
-                .templateName("password-reset")
-                .templateVariables(Map.of(
-                        "name", user.getName(),
-                        "resetLink", resetLink + code
-                ))
-                .build();
+            passwordResetRepo.save(resetCode);
 
-        notificationService.sendEmail(passwordResetEmail, user);
+            outboxPublisher.publish(new PasswordResetRequested(user.getId()));
+        });
 
         return Response.builder()
                 .statusCode(200)
@@ -203,23 +226,47 @@ public class AuthServiceImpl implements AuthService {
         }
 
         User user = resetCode.getUser();
-        user.setPassword(passwordEncoder.encode(resetRequest.getNewPassword()));
-        userRepo.save(user);
+        user.setPassword(passwordHashingService.encode(resetRequest.getNewPassword()));
+        user.setTokenVersion(user.getTokenVersion() + 1); // invalidates tokens issued before the reset
+        user.setTokenVersionChangedAt(LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepo.save(user);
+            passwordResetRepo.delete(resetCode);
+            outboxPublisher.publish(new PasswordChanged(user.getId(), true));
+        });
 
-        passwordResetRepo.delete(resetCode);
+        tokenVersionRegistry.record(user.getId(), user.getTokenVersion());
+        eventPublisher.publishEvent(new UserUpdatedEvent(user.getEmail()));
 
-        NotificationDTO confirmationEmail = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Password Updated Successfully")
-                .templateName("password-update-confirmation")
-                .templateVariables(Map.of("name", user.getName()))
+        return Response.builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Password updated successfully")
                 .build();
+    }
+
+
+
+    // LOGOUT
+
+    @Override
+    public Response<?> logout(String token) {
 
-        notificationService.sendEmail(confirmationEmail, user);
+        if (token == null) {
+            throw new BadRequestException("Token is required");
+        }
+
+        try {
+            VerifiedToken verifiedToken = jwtService.verifyToken(token);
+            tokenRevocationService.revoke(verifiedToken.tokenId(), verifiedToken.expiresAtMillis());
+        } catch (JwtException e) {
+            // expired or invalid tokens are rejected anyway, nothing to revoke
+            log.debug("Logout with unusable token: {}", e.getMessage());
+        }
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
-                .message("Password updated successfully")
+                .message("Logged out successfully")
                 .build();
     }
 
@@ -251,18 +298,4 @@ public class AuthServiceImpl implements AuthService {
 
         doctorRepo.save(doctor);
     }
-
-    private void sendRegistrationEmail(RegistrationRequest request, User user) {
-        NotificationDTO email = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Welcome to DAT Health!")
-                .templateName("welcome")
-                .templateVariables(Map.of(
-                        "name", request.getName(),
-                        "loginLink", loginLink
-                ))
-                .build();
-
-        notificationService.sendEmail(email, user);
-    }
 }
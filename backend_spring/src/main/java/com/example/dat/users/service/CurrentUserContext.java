@@ -0,0 +1,90 @@
+package com.example.dat.users.service;
+
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.security.AuthUser;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Per-request view of the authenticated caller.
+ * The id and roles come straight from the principal AuthFilter already built,
+ * the User entity and the Doctor/Patient profile ids are loaded lazily at most once per request.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUserContext {
+
+    private final UserRepo userRepo;
+    private final DoctorRepo doctorRepo;
+    private final PatientRepo patientRepo;
+
+    private AuthUser principal;
+    private User user;
+    private Optional<Long> doctorId;
+    private Optional<Long> patientId;
+
+    public Long getUserId() {
+        return getPrincipal().getUser().getId();
+    }
+
+    public String getEmail() {
+        return getPrincipal().getUsername();
+    }
+
+    public boolean hasRole(String role) {
+        return getPrincipal().getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals(role));
+    }
+
+    public User getUser() {
+        if (user == null) {
+            user = userRepo.findById(getUserId())
+                    .orElseThrow(() -> new NotFoundException("User Not Found"));
+        }
+        return user;
+    }
+
+    public Optional<Long> findDoctorId() {
+        if (doctorId == null) {
+            doctorId = doctorRepo.findIdByUserId(getUserId());
+        }
+        return doctorId;
+    }
+
+    public Optional<Long> findPatientId() {
+        if (patientId == null) {
+            patientId = patientRepo.findIdByUserId(getUserId());
+        }
+        return patientId;
+    }
+
+    public Long getDoctorId() {
+        return findDoctorId().orElseThrow(() -> new NotFoundException("Doctor profile not found."));
+    }
+
+    public Long getPatientId() {
+        return findPatientId().orElseThrow(() -> new NotFoundException("Patient profile not found."));
+    }
+
+    private AuthUser getPrincipal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthUser authUser)) {
+                throw new NotFoundException("User is not authenticated");
+            }
+            principal = authUser;
+        }
+        return principal;
+    }
+}
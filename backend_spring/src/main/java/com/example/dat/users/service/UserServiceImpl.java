@@ -1,31 +1,43 @@
 package com.example.dat.users.service;
 
+import com.example.dat.config.ExecutorConfig;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
-import com.example.dat.notification.dto.NotificationDTO;
-import com.example.dat.notification.service.NotificationService;
+import com.example.dat.exceptions.TooManyRequestsException;
+import com.example.dat.outbox.event.PasswordChanged;
+import com.example.dat.outbox.service.OutboxPublisher;
 import com.example.dat.res.Response;
+import com.example.dat.role.entity.Role;
+import com.example.dat.security.PasswordHashingService;
+import com.example.dat.security.TokenVersionRegistry;
 import com.example.dat.users.dto.UpdatePasswordRequest;
 import com.example.dat.users.dto.UserDTO;
+import com.example.dat.users.dto.UserRow;
 import com.example.dat.users.entity.User;
+import com.example.dat.users.event.UserUpdatedEvent;
+import com.example.dat.users.mapper.UserMapper;
 import com.example.dat.users.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @RequiredArgsConstructor
@@ -33,9 +45,16 @@ import java.util.UUID;
 public class UserServiceImpl implements UserService {
 
     private final UserRepo userRepo;
-    private final ModelMapper modelMapper;
-    private final PasswordEncoder passwordEncoder;
-    private final NotificationService notificationService;
+    private final UserMapper userMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CurrentUserContext currentUserContext;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Qualifier(ExecutorConfig.IO_EXECUTOR)
+    private final ExecutorService ioExecutor;
 
 //    private final String uploadDir = "uploads/profile-pictures/"; //backend location for saving images
 
@@ -44,16 +63,8 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User getCurrentUser() {
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null) {
-            throw new NotFoundException("User is not authenticated");
-        }
-        String email = authentication.getName();
-
-        return userRepo.findByEmail(email).orElseThrow(() -> new NotFoundException("User Not Found"));
-
+        // loaded at most once per request, see CurrentUserContext
+        return currentUserContext.getUser();
     }
 
     @Override
@@ -61,7 +72,7 @@ public class UserServiceImpl implements UserService {
 
         User user = getCurrentUser();
 
-        UserDTO userDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO userDTO = userMapper.toDto(user);
 
         return Response.<UserDTO>builder()
                 .statusCode(200)
@@ -77,7 +88,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepo.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
 
-        UserDTO userDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO userDTO = userMapper.toDto(user);
 
         return Response.<UserDTO>builder()
                 .statusCode(200)
@@ -89,8 +100,11 @@ public class UserServiceImpl implements UserService {
     @Override
     public Response<List<UserDTO>> getAllUsers() {
 
-        List<UserDTO> userDTOS = userRepo.findAll().stream()
-                .map(user -> modelMapper.map(user, UserDTO.class))
+        List<UserRow> users = userRepo.findAllRows();
+        Map<Long, List<Role>> roles = userRepo.findAllRoles();
+
+        List<UserDTO> userDTOS = users.stream()
+                .map(user -> user.toDto(roles.getOrDefault(user.id(), List.of())))
                 .toList();
 
 
@@ -114,23 +128,22 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestException("Old and New Password Required");
         }
         // Validate the old password.
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPassword())) {
             throw new BadRequestException("Old Password not Correct");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepo.save(user);
-
-        // Send password change confirmation email.
-        NotificationDTO notificationDTO = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Your Password Was Successfully Changed")
-                .templateName("password-change")
-                .templateVariables(Map.of(
-                        "name", user.getName()
-                ))
-                .build();
-        notificationService.sendEmail(notificationDTO, user);
+        user.setPassword(passwordHashingService.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1); // invalidates tokens issued before the change
+        user.setTokenVersionChangedAt(LocalDateTime.now());
+
+        // password change confirmation email goes through the outbox, same transaction as the update
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepo.save(user);
+            outboxPublisher.publish(new PasswordChanged(user.getId(), false));
+        });
+
+        tokenVersionRegistry.record(user.getId(), user.getTokenVersion());
+        eventPublisher.publishEvent(new UserUpdatedEvent(user.getEmail()));
 
         return Response.builder()
                 .statusCode(200)
@@ -150,12 +163,7 @@ public class UserServiceImpl implements UserService {
                 Files.createDirectories(uploadPath);
             }
 
-            if (user.getProfilePictureUrl() != null && !user.getProfilePictureUrl().isEmpty()) {
-                Path oldFile = Paths.get(user.getProfilePictureUrl());
-                if (Files.exists(oldFile)) {
-                    Files.delete(oldFile);
-                }
-            }
+            String oldPictureUrl = user.getProfilePictureUrl();
 
             // Generate a unique file name to avoid conflicts
             String originalFileName = file.getOriginalFilename();
@@ -167,7 +175,8 @@ public class UserServiceImpl implements UserService {
             String newFileName = UUID.randomUUID() + fileExtension;
             Path filePath = uploadPath.resolve(newFileName);
 
-            Files.copy(file.getInputStream(), filePath);
+            // the disk write runs on the capped I/O executor, the request thread only waits for it
+            writeFile(file, filePath);
 
 //            String fileUrl = uploadDir + newFileName;
             String fileUrl = "/profile-picture/" + newFileName;
@@ -175,6 +184,12 @@ public class UserServiceImpl implements UserService {
 
             user.setProfilePictureUrl(fileUrl);
             userRepo.save(user);
+            eventPublisher.publishEvent(new UserUpdatedEvent(user.getEmail()));
+
+            // the old picture is no longer referenced, remove it off the request thread
+            if (oldPictureUrl != null && !oldPictureUrl.isEmpty()) {
+                deleteOldPicture(oldPictureUrl);
+            }
 
             return Response.builder()
                     .statusCode(HttpStatus.OK.value())
@@ -187,6 +202,42 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    private void writeFile(MultipartFile file, Path target) throws IOException {
+        Future<Long> write;
+        try {
+            write = ioExecutor.submit(() -> Files.copy(file.getInputStream(), target));
+        } catch (RejectedExecutionException e) {
+            log.warn("I/O executor busy, rejecting profile picture upload");
+            throw new TooManyRequestsException("Server is busy, please try again shortly.");
+        }
+
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving profile picture", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Could not save profile picture", e.getCause());
+        }
+    }
+
+    private void deleteOldPicture(String pictureUrl) {
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    Files.deleteIfExists(Paths.get(pictureUrl));
+                } catch (IOException e) {
+                    log.warn("Could not delete old profile picture {}: {}", pictureUrl, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("I/O executor busy, old profile picture {} left in place", pictureUrl);
+        }
+    }
+
     @Override
     public Response<?> uploadProfilePictureToS3(MultipartFile file) {
         return null;
@@ -0,0 +1,12 @@
+-- OutboxRelay retries failed events with backoff, FAILED only after max-attempts
+ALTER TABLE outbox_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at DATETIME(6);
+
+-- purge of FAILED rows: status = 'FAILED' AND created_at < ?
+CREATE INDEX idx_outbox_events_created ON outbox_events (status, created_at);
+
+-- PasswordResetRequested no longer carries the reset code, scrub the ones already written
+UPDATE outbox_events
+SET payload = JSON_REMOVE(payload, '$.code')
+WHERE event_type = 'PasswordResetRequested'
+  AND JSON_CONTAINS_PATH(payload, 'one', '$.code');
@@ -0,0 +1,11 @@
+-- when a mail reached SENT or DEAD, the retention purge counts from here (not from created_at,
+-- a mail that retried for hours would otherwise be deleted soon after it finished)
+ALTER TABLE outbound_emails ADD COLUMN finished_at DATETIME(6);
+
+-- DEAD rows had next_attempt_at stamped with the time they were given up on
+UPDATE outbound_emails
+SET finished_at = COALESCE(sent_at, next_attempt_at)
+WHERE status IN ('SENT', 'DEAD');
+
+-- purge: status IN ('SENT','DEAD') AND finished_at < ?
+CREATE INDEX idx_outbound_emails_finished ON outbound_emails (status, finished_at);
@@ -0,0 +1,114 @@
+-- Baseline: the schema as Hibernate (ddl-auto=update) created it for the code before Flyway was introduced.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE roles
+(
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE users
+(
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    name                VARCHAR(255),
+    email               VARCHAR(255),
+    password            VARCHAR(255) NOT NULL,
+    profile_picture_url VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE user_roles
+(
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE doctors
+(
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    first_name     VARCHAR(255),
+    last_name      VARCHAR(255),
+    specialization ENUM ('GENERAL_PRACTICE','PEDIATRICS','CARDIOLOGY','DERMATOLOGY','NEUROLOGY','PSYCHIATRY','DENTISTRY','OPHTHALMOLOGY','EMERGENCY_MEDICINE'),
+    license_number VARCHAR(255),
+    user_id        BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_doctors_user UNIQUE (user_id),
+    CONSTRAINT fk_doctors_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE patients
+(
+    id              BIGINT NOT NULL AUTO_INCREMENT,
+    first_name      VARCHAR(255),
+    last_name       VARCHAR(255),
+    date_of_birth   DATE,
+    phone           VARCHAR(255),
+    known_allergies LONGTEXT,
+    blood_group     ENUM ('A_POSITIVE','A_NEGATIVE','B_POSITIVE','B_NEGATIVE','AB_POSITIVE','AB_NEGATIVE','O_POSITIVE','O_NEGATIVE'),
+    genotype        ENUM ('AA','AS','SS','AC'),
+    user_id         BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_patients_user UNIQUE (user_id),
+    CONSTRAINT fk_patients_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE appointments
+(
+    id                      BIGINT      NOT NULL AUTO_INCREMENT,
+    start_time              DATETIME(6) NOT NULL,
+    end_time                DATETIME(6),
+    meeting_link            VARCHAR(255),
+    purpose_of_consultation VARCHAR(255),
+    initial_symptoms        VARCHAR(255),
+    status                  ENUM ('SCHEDULED','COMPLETED','CANCELLED','NO_SHOW'),
+    doctor_id               BIGINT      NOT NULL,
+    patient_id              BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id),
+    CONSTRAINT fk_appointments_patient FOREIGN KEY (patient_id) REFERENCES patients (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE consultations
+(
+    id                 BIGINT NOT NULL AUTO_INCREMENT,
+    consultation_date  DATETIME(6),
+    subjective_notes   LONGTEXT,
+    objective_findings LONGTEXT,
+    assessment         LONGTEXT,
+    plan               LONGTEXT,
+    appointment_id     BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_consultations_appointment UNIQUE (appointment_id),
+    CONSTRAINT fk_consultations_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE notifications
+(
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    subject    VARCHAR(255),
+    recipient  VARCHAR(255),
+    message    VARCHAR(255),
+    type       ENUM ('EMAIL','SMS','IN_APP'),
+    user_id    BIGINT,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notifications_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE password_reset_code
+(
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    code        VARCHAR(255),
+    user_id     BIGINT NOT NULL,
+    expiry_date DATETIME(6),
+    used        BIT    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_password_reset_code_code UNIQUE (code),
+    CONSTRAINT uk_password_reset_code_user UNIQUE (user_id),
+    CONSTRAINT fk_password_reset_code_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
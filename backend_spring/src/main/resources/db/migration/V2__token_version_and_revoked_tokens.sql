@@ -0,0 +1,15 @@
+-- JWT invalidation: per-user token version (bumped on password change) and the logout deny-list
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE revoked_tokens
+(
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    token_id   VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    revoked_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revoked_tokens_token_id UNIQUE (token_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,21 @@
+-- Indexes for the hot query paths. Every one leads with the equality column(s)
+-- and ends with the range / sort columns of the query it serves.
+
+-- conflict check (findConflictingAppointments) + NO_SHOW / reminder style scans per doctor
+CREATE INDEX idx_appointments_doctor_status_start ON appointments (doctor_id, status, start_time);
+
+-- keyset listing: WHERE doctor_id/patient_id = ? ORDER BY start_time DESC, id DESC
+CREATE INDEX idx_appointments_doctor_start_id ON appointments (doctor_id, start_time, id);
+CREATE INDEX idx_appointments_patient_start_id ON appointments (patient_id, start_time, id);
+
+-- schedule index load at startup (status = 'SCHEDULED' AND end_time > ?)
+CREATE INDEX idx_appointments_status_end ON appointments (status, end_time);
+
+-- consultation history joined through the patient's appointments, newest first
+CREATE INDEX idx_consultations_appointment_date ON consultations (appointment_id, consultation_date);
+
+-- a user's notification log in time order
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at);
+
+-- first-available search and /filter by specialization
+CREATE INDEX idx_doctors_specialization ON doctors (specialization);
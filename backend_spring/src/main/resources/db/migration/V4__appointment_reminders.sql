@@ -0,0 +1,5 @@
+-- reminder bookkeeping for AppointmentReminderScheduler
+ALTER TABLE appointments ADD COLUMN reminder_sent BIT NOT NULL DEFAULT 0;
+
+-- pending reminder recovery: status = 'SCHEDULED' AND reminder_sent = 0 AND start_time > ?
+CREATE INDEX idx_appointments_reminder ON appointments (status, reminder_sent, start_time);
@@ -0,0 +1,22 @@
+-- durable mail queue drained by EmailDispatcher
+CREATE TABLE outbound_emails
+(
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255),
+    body            LONGTEXT     NOT NULL,
+    template_name   VARCHAR(255),
+    type            ENUM ('EMAIL','SMS','IN_APP'),
+    user_id         BIGINT,
+    status          ENUM ('PENDING','SENDING','SENT','DEAD') NOT NULL,
+    attempts        INT          NOT NULL,
+    next_attempt_at DATETIME(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6)  NOT NULL,
+    sent_at         DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_outbound_emails_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- claim query: status IN ('PENDING','SENDING') AND next_attempt_at <= ? ORDER BY next_attempt_at
+CREATE INDEX idx_outbound_emails_due ON outbound_emails (status, next_attempt_at);
@@ -0,0 +1,17 @@
+-- transactional outbox, written with the business change and relayed by OutboxRelay
+CREATE TABLE outbox_events
+(
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    event_type   VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT,
+    payload      LONGTEXT     NOT NULL,
+    status       ENUM ('PENDING','PROCESSED','FAILED') NOT NULL,
+    last_error   VARCHAR(1000),
+    created_at   DATETIME(6)  NOT NULL,
+    processed_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- relay: status = 'PENDING' ORDER BY id, purge: status = 'PROCESSED' AND processed_at < ?
+CREATE INDEX idx_outbox_events_status ON outbox_events (status, id);
+CREATE INDEX idx_outbox_events_processed ON outbox_events (status, processed_at);
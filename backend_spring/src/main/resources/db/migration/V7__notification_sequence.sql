@@ -0,0 +1,13 @@
+-- Notification ids move from AUTO_INCREMENT to a pooled sequence so log inserts can be batched.
+-- MySQL has no sequences, Hibernate emulates notification_seq with a one-row table.
+ALTER TABLE notifications MODIFY id BIGINT NOT NULL;
+
+CREATE TABLE notification_seq
+(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+-- the pooled optimizer hands out (next_val - 99 .. next_val), so start one full block above the current max id
+INSERT INTO notification_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 101
+FROM notifications;
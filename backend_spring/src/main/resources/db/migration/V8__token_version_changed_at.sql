@@ -0,0 +1,4 @@
+-- lets every node pull token version bumps made elsewhere (TokenVersionRegistry sync)
+ALTER TABLE users ADD COLUMN token_version_changed_at DATETIME(6);
+
+CREATE INDEX idx_users_token_version_changed_at ON users (token_version_changed_at);
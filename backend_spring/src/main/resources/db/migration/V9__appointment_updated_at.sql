@@ -0,0 +1,6 @@
+-- maintained by MySQL on every insert/update (JPA saves, bulk JPQL updates and batch inserts alike),
+-- lets each node's DoctorScheduleIndex pull changes made on other nodes
+ALTER TABLE appointments
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_appointments_updated_at ON appointments (updated_at);
@@ -0,0 +1,101 @@
+package com.example.dat.appointment.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 10k doctors x 1 year of bookings (one per weekday), then timed conflict checks,
+ * one-month availability scans and a first-available search over all doctors.
+ * Too heavy for the regular build, run with: mvn test -Dtest=DoctorScheduleIndexBenchmark -Dbenchmark=true
+ *
+ * The numbers are indicative only: hand-timed with System.nanoTime in a single JVM, one warm-up
+ * round, no forking and no JIT / GC control. Good for spotting an order-of-magnitude regression,
+ * not for comparing small differences (use JMH for that).
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DoctorScheduleIndexBenchmark {
+
+    private static final int DOCTORS = 10_000;
+    private static final int DAYS = 365;
+    private static final int ROUNDS = 100_000;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void tenThousandDoctorsForAYear() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long loadStart = System.nanoTime();
+        long appointmentId = 0;
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            for (int day = 0; day < DAYS; day++) {
+                LocalDateTime date = START.plusDays(day);
+                if (date.getDayOfWeek().getValue() >= 6) {
+                    continue;
+                }
+                LocalDateTime start = date.withHour(8 + random.nextInt(9));
+                index.add(++appointmentId, doctorId, start, start.plusMinutes(DoctorScheduleIndex.SLOT_MINUTES));
+            }
+        }
+        report("load " + appointmentId + " appointments", System.nanoTime() - loadStart, 1);
+
+        // warm up, then measure
+        runConflictChecks(index, random, ROUNDS);
+        long conflictStart = System.nanoTime();
+        int conflicts = runConflictChecks(index, random, ROUNDS);
+        report("hasConflict (" + conflicts + " hits)", System.nanoTime() - conflictStart, ROUNDS);
+
+        int scans = 10_000;
+        runAvailability(index, random, scans);
+        long availabilityStart = System.nanoTime();
+        runAvailability(index, random, scans);
+        report("bookableStarts, one month", System.nanoTime() - availabilityStart, scans);
+
+        List<Long> allDoctors = new ArrayList<>(DOCTORS);
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            allDoctors.add(doctorId);
+        }
+        int searches = 20;
+        index.earliestBookable(allDoctors, START.plusDays(30), START.plusDays(61), 50);
+        long searchStart = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            assertFalse(index.earliestBookable(allDoctors, START.plusDays(30 + i), START.plusDays(61 + i), 50).isEmpty());
+        }
+        report("earliestBookable, " + DOCTORS + " doctors", System.nanoTime() - searchStart, searches);
+    }
+
+    private static int runConflictChecks(DoctorScheduleIndex index, ThreadLocalRandom random, int rounds) {
+        int conflicts = 0;
+        for (int i = 0; i < rounds; i++) {
+            long doctorId = 1 + random.nextInt(DOCTORS);
+            LocalDateTime start = START.plusDays(random.nextInt(DAYS)).withHour(8 + random.nextInt(9));
+            if (index.hasConflict(doctorId, start.minusMinutes(DoctorScheduleIndex.BUFFER_MINUTES),
+                    start.plusMinutes(DoctorScheduleIndex.SLOT_MINUTES))) {
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    private static void runAvailability(DoctorScheduleIndex index, ThreadLocalRandom random, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            long doctorId = 1 + random.nextInt(DOCTORS);
+            LocalDateTime from = START.plusDays(random.nextInt(DAYS - 31));
+            index.bookableStarts(doctorId, from, from.plusDays(31), Integer.MAX_VALUE);
+        }
+    }
+
+    private static void report(String what, long nanos, int operations) {
+        log.info(String.format("%-45s %10.3f ms total %10.2f us/op",
+                what, nanos / 1e6, nanos / 1e3 / operations));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.BookableSlot;
+import com.example.dat.appointment.dto.SlotChange;
+import com.example.dat.enums.AppointmentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoctorScheduleIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void bookableStartsRespectTheBuffer() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        index.add(1L, 7L, DAY.withHour(10), DAY.withHour(11));
+
+        List<LocalDateTime> starts = index.bookableStarts(7L, DAY.withHour(8), DAY.withHour(13), 100);
+
+        // 09:00 ends right when 10:00 starts, next one is 12:00 (one hour after 11:00)
+        assertTrue(starts.contains(DAY.withHour(9)));
+        assertFalse(starts.contains(DAY.withHour(9).withMinute(15)));
+        assertFalse(starts.contains(DAY.withHour(11).withMinute(45)));
+        assertTrue(starts.contains(DAY.withHour(12)));
+
+        // every offered start passes the same check bookAppointment does
+        for (LocalDateTime start : starts) {
+            assertFalse(index.hasConflict(7L, start.minusMinutes(60), start.plusMinutes(60)));
+        }
+        assertEquals(DAY.withHour(12).withMinute(45), starts.get(starts.size() - 1));
+    }
+
+    @Test
+    void bookableStartsAcrossMidnight() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        index.add(1L, 7L, DAY.withHour(23).withMinute(30), DAY.plusDays(1).withMinute(30));
+
+        List<LocalDateTime> starts = index.bookableStarts(7L, DAY.withHour(22), DAY.plusDays(1).withHour(2), 100);
+
+        assertEquals(DAY.withHour(22), starts.get(0));
+        assertEquals(DAY.withHour(22).withMinute(30), starts.get(2));
+        assertEquals(DAY.plusDays(1).withHour(1).withMinute(30), starts.get(3));
+    }
+
+    @Test
+    void unknownDoctorIsFreeAndLimitIsHonoured() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+
+        List<LocalDateTime> starts = index.bookableStarts(99L, DAY.withMinute(7), DAY.withHour(5), 3);
+
+        assertEquals(List.of(DAY.withMinute(15), DAY.withMinute(30), DAY.withMinute(45)), starts);
+    }
+
+    @Test
+    void earliestBookableMergesDoctorsInTimeOrder() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        // doctor 1 busy 08:00 - 09:00, doctor 2 busy 07:00 - 08:00 -> both blocked until 08:00 / 09:00
+        index.add(1L, 1L, DAY.withHour(8), DAY.withHour(9));
+        index.add(2L, 2L, DAY.withHour(7), DAY.withHour(8));
+
+        List<BookableSlot> slots = index.earliestBookable(List.of(1L, 2L), DAY.withHour(8), DAY.withHour(12), 4);
+
+        // doctor 1 is free again from 10:00, each doctor only offers non-overlapping slots
+        assertEquals(List.of(
+                new BookableSlot(2L, DAY.withHour(9)),
+                new BookableSlot(1L, DAY.withHour(10)),
+                new BookableSlot(2L, DAY.withHour(10)),
+                new BookableSlot(1L, DAY.withHour(11))
+        ), slots);
+
+        // at 10:00 both are free, ties go to the lower doctor id
+        List<BookableSlot> later = index.earliestBookable(List.of(2L, 1L), DAY.withHour(10), DAY.withHour(12), 2);
+        assertEquals(List.of(new BookableSlot(1L, DAY.withHour(10)), new BookableSlot(2L, DAY.withHour(10))), later);
+    }
+
+    @Test
+    void syncAppliesChangesFromOtherNodes() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        index.add(1L, 7L, DAY.withHour(10), DAY.withHour(11));
+        long now = DoctorScheduleIndex.toMinutes(DAY);
+
+        index.apply(List.of(
+                new SlotChange(1L, 7L, DAY.withHour(10), DAY.withHour(11), AppointmentStatus.CANCELLED, DAY),
+                new SlotChange(2L, 7L, DAY.withHour(14), DAY.withHour(15), AppointmentStatus.SCHEDULED, DAY),
+                new SlotChange(3L, 7L, DAY.minusDays(1), DAY.minusDays(1).plusHours(1), AppointmentStatus.SCHEDULED, DAY)
+        ), now);
+
+        assertFalse(index.hasConflict(7L, DAY.withHour(10), DAY.withHour(11)));
+        assertTrue(index.hasConflict(7L, DAY.withHour(14), DAY.withHour(15)));
+        assertFalse(index.hasConflict(7L, DAY.minusDays(1), DAY.minusDays(1).plusHours(1)));
+        assertEquals(1, index.timeline(7L).size());
+
+        // the same rows again (sync windows overlap) change nothing
+        index.apply(List.of(
+                new SlotChange(2L, 7L, DAY.withHour(14), DAY.withHour(15), AppointmentStatus.SCHEDULED, DAY)
+        ), now);
+        assertEquals(1, index.timeline(7L).size());
+    }
+
+    @Test
+    void availabilityReopensAfterSyncedCancel() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        index.add(1L, 7L, DAY.withHour(10), DAY.withHour(11));
+        assertFalse(index.bookableStarts(7L, DAY.withHour(9), DAY.withHour(12), 100).contains(DAY.withHour(10)));
+
+        // cancelled on another node, picked up by the periodic sync
+        index.apply(List.of(
+                new SlotChange(1L, 7L, DAY.withHour(10), DAY.withHour(11), AppointmentStatus.CANCELLED, DAY)
+        ), DoctorScheduleIndex.toMinutes(DAY));
+
+        assertTrue(index.bookableStarts(7L, DAY.withHour(9), DAY.withHour(12), 100).contains(DAY.withHour(10)));
+    }
+
+    @Test
+    void watermarkOnlyMovesToUpdatedAtSeenInTheDatabase() {
+        LocalDateTime watermark = DAY.withHour(9);
+
+        // nothing changed -> keep the old watermark, never jump to this JVM's clock
+        assertEquals(watermark, DoctorScheduleIndex.latestUpdate(List.of(), watermark));
+
+        LocalDateTime latest = DoctorScheduleIndex.latestUpdate(List.of(
+                new SlotChange(1L, 7L, DAY.withHour(10), DAY.withHour(11), AppointmentStatus.SCHEDULED, DAY.withHour(9).plusSeconds(5)),
+                // inside the overlap window, older than the current watermark
+                new SlotChange(2L, 7L, DAY.withHour(12), DAY.withHour(13), AppointmentStatus.SCHEDULED, DAY.withHour(8).plusMinutes(59))
+        ), watermark);
+        assertEquals(DAY.withHour(9).plusSeconds(5), latest);
+    }
+
+    @Test
+    void earliestBookableNeverOffersOverlappingSlotsOfOneDoctor() {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(null);
+        // doctor 3 busy 09:00 - 10:00 -> free again from 11:00
+        index.add(1L, 3L, DAY.withHour(9), DAY.withHour(10));
+
+        List<BookableSlot> slots = index.earliestBookable(List.of(3L), DAY.withHour(6).withMinute(15), DAY.withHour(14), 5);
+
+        assertEquals(List.of(
+                new BookableSlot(3L, DAY.withHour(6).withMinute(15)),
+                new BookableSlot(3L, DAY.withHour(7).withMinute(15)),
+                new BookableSlot(3L, DAY.withHour(11)),
+                new BookableSlot(3L, DAY.withHour(12)),
+                new BookableSlot(3L, DAY.withHour(13))
+        ), slots);
+
+        for (int i = 1; i < slots.size(); i++) {
+            assertFalse(slots.get(i).startTime().isBefore(
+                    slots.get(i - 1).startTime().plusMinutes(DoctorScheduleIndex.SLOT_MINUTES)));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.dat.appointment.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoctorTimelineTest {
+
+    @Test
+    void detectsOverlapsLikeTheConflictQuery() {
+        DoctorTimeline timeline = new DoctorTimeline();
+        timeline.add(1, 600, 660); // 10:00 - 11:00
+
+        assertTrue(timeline.overlaps(630, 690));
+        assertTrue(timeline.overlaps(540, 601));
+        assertTrue(timeline.overlaps(500, 800));
+
+        // touching intervals don't overlap (start < to AND end > from)
+        assertFalse(timeline.overlaps(660, 720));
+        assertFalse(timeline.overlaps(540, 600));
+    }
+
+    @Test
+    void enforcesBufferWhenCallerWidensTheWindow() {
+        DoctorTimeline timeline = new DoctorTimeline();
+        timeline.add(1, 600, 660);
+
+        // booking 11:30 checks [10:30, 12:30) -> still inside the one hour buffer
+        assertTrue(timeline.overlaps(630, 750));
+        // booking 12:00 checks [11:00, 13:00) -> free
+        assertFalse(timeline.overlaps(660, 780));
+    }
+
+    @Test
+    void removeAndEviction() {
+        DoctorTimeline timeline = new DoctorTimeline();
+        timeline.add(1, 600, 660);
+        timeline.add(2, 800, 860);
+
+        assertTrue(timeline.remove(1));
+        assertFalse(timeline.overlaps(600, 660));
+
+        assertEquals(1, timeline.removeEndedBefore(900));
+        assertEquals(0, timeline.size());
+    }
+
+    @Test
+    void busyCellsFollowSlotChanges() {
+        DoctorTimeline timeline = new DoctorTimeline();
+        timeline.add(1, 600, 660); // day 0, 10:00 - 11:00 -> cells 40..43
+
+        long[] cells = timeline.busyCells(0);
+        assertEquals(0xFL << 40, cells[0]);
+        assertEquals(0, cells[1]);
+
+        // cached bitmap is dropped once the slot goes away
+        timeline.remove(1);
+        assertSame(DoctorTimeline.FREE_DAY, timeline.busyCells(0));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.dat.appointment.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void firesOnlyWhenDue() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        wheel.schedule(1L, 2_500);
+        wheel.schedule(2L, 5_000);
+
+        assertTrue(wheel.advance(2_000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(3_000));
+        assertEquals(List.of(2L), wheel.advance(5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersBeyondOneRevolutionWaitForTheirRound() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        wheel.schedule(1L, 20_000); // same bucket as tick 4 and 12
+
+        assertTrue(wheel.advance(4_000).isEmpty());
+        assertTrue(wheel.advance(12_000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(20_000));
+    }
+
+    @Test
+    void cancelAndLongPause() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        wheel.schedule(1L, 3_000);
+        wheel.schedule(2L, 6_000);
+        wheel.schedule(3L, 50_000);
+
+        assertTrue(wheel.cancel(1L));
+
+        // nothing advanced for longer than a revolution, everything overdue still fires
+        assertEquals(List.of(2L), wheel.advance(30_000));
+        assertEquals(List.of(3L), wheel.advance(60_000));
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(1000, 8, 10_000);
+        wheel.schedule(1L, 1_000);
+
+        assertEquals(List.of(1L), wheel.advance(10_500));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.dat.appointment.schedule;
+
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.enums.RecurrenceFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeriesPlannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    @Test
+    void expandsDailyAndWeeklySeries() {
+        assertEquals(List.of(START, START.plusDays(2), START.plusDays(4)),
+                SeriesPlanner.expand(START, RecurrenceFrequency.DAILY, 2, 3));
+
+        assertEquals(List.of(START, START.plusWeeks(1), START.plusWeeks(2), START.plusWeeks(3)),
+                SeriesPlanner.expand(START, RecurrenceFrequency.WEEKLY, 1, 4));
+    }
+
+    @Test
+    void flagsOnlyOverlappingOccurrences() {
+        List<LocalDateTime> starts = SeriesPlanner.expand(START, RecurrenceFrequency.WEEKLY, 1, 3);
+
+        // second week 10:30 - 11:30 overlaps the 10:00 - 11:00 occurrence
+        List<ScheduledSlot> existing = List.of(
+                slot(1L, START.plusWeeks(1).plusMinutes(30), START.plusWeeks(1).plusMinutes(90))
+        );
+
+        assertEquals(List.of(START.plusWeeks(1)), SeriesPlanner.conflicts(starts, existing));
+    }
+
+    @Test
+    void respectsTheOneHourBuffer() {
+        List<LocalDateTime> starts = List.of(START);
+
+        // ends 09:30 -> inside the 09:00 - 10:00 buffer
+        assertEquals(starts, SeriesPlanner.conflicts(starts, List.of(slot(1L, START.minusMinutes(90), START.minusMinutes(30)))));
+
+        // ends exactly at 09:00 -> fine
+        assertTrue(SeriesPlanner.conflicts(starts, List.of(slot(1L, START.minusHours(2), START.minusHours(1)))).isEmpty());
+
+        // starts right when the occurrence ends -> fine, its own buffer is the next booking's problem
+        assertTrue(SeriesPlanner.conflicts(starts, List.of(slot(1L, START.plusHours(1), START.plusHours(2)))).isEmpty());
+    }
+
+    private static ScheduledSlot slot(Long id, LocalDateTime start, LocalDateTime end) {
+        return new ScheduledSlot(id, 7L, start, end);
+    }
+}
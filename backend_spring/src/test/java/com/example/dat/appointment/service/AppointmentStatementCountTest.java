@@ -0,0 +1,200 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.Specialization;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.role.entity.Role;
+import com.example.dat.security.AuthUser;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listing, cancel and complete must not issue more statements as the data grows:
+ * the page is one joined SELECT whatever its size, cancel / complete touch one appointment
+ * no matter how many the doctor already has.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentStatementCountTest {
+
+    private static final int PAGE = 10;
+
+    // Hibernate statistics are global, keep the scheduled jobs (outbox relay, index sync ...) from adding to them
+    @MockitoBean
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DoctorRepo doctorRepo;
+
+    @Autowired
+    private PatientRepo patientRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User busyDoctorUser;
+    private User quietDoctorUser;
+    private User patientUser;
+    private Doctor busyDoctor;
+    private Doctor quietDoctor;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        busyDoctorUser = newUser("busy-doctor");
+        quietDoctorUser = newUser("quiet-doctor");
+        patientUser = newUser("patient");
+        busyDoctor = newDoctor(busyDoctorUser);
+        quietDoctor = newDoctor(quietDoctorUser);
+        patient = patientRepo.save(Patient.builder().firstName("Pat").lastName("Count").user(patientUser).build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < 3 * PAGE; i++) {
+            newAppointment(busyDoctor, start.plusHours(2L * i));
+        }
+        newAppointment(quietDoctor, start);
+    }
+
+    @Test
+    void listingCostsTheSameStatementsForAnyPageSize() {
+        // first call warms up whatever is loaded once per context
+        as(busyDoctorUser, "DOCTOR", () -> appointmentService.getMyAppointments(null, null, null, null, 1));
+
+        long onePerPage = statementsOf(() -> assertEquals(1, as(busyDoctorUser, "DOCTOR",
+                () -> appointmentService.getMyAppointments(null, null, null, null, 1)).getData().size()));
+        long fullPage = statementsOf(() -> assertEquals(PAGE, as(busyDoctorUser, "DOCTOR",
+                () -> appointmentService.getMyAppointments(null, null, null, null, PAGE)).getData().size()));
+        assertEquals(onePerPage, fullPage);
+
+        long patientOnePerPage = statementsOf(() -> as(patientUser, "PATIENT",
+                () -> appointmentService.getMyAppointments(null, null, null, null, 1)));
+        long patientFullPage = statementsOf(() -> as(patientUser, "PATIENT",
+                () -> appointmentService.getMyAppointments(null, null, null, null, PAGE)));
+        assertEquals(patientOnePerPage, patientFullPage);
+    }
+
+    @Test
+    void cancelCostsTheSameStatementsWhateverTheDoctorsHistory() {
+        Appointment busy = newAppointment(busyDoctor, LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS));
+        Appointment quiet = newAppointment(quietDoctor, LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS));
+
+        long busyCancel = statementsOf(() -> as(patientUser, "PATIENT", () -> appointmentService.cancelAppointment(busy.getId())));
+        long quietCancel = statementsOf(() -> as(patientUser, "PATIENT", () -> appointmentService.cancelAppointment(quiet.getId())));
+
+        assertEquals(quietCancel, busyCancel);
+        assertEquals(AppointmentStatus.CANCELLED, appointmentRepo.findById(busy.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void completeCostsTheSameStatementsWhateverTheDoctorsHistory() {
+        Appointment busy = newAppointment(busyDoctor, LocalDateTime.now().plusDays(31).truncatedTo(ChronoUnit.HOURS));
+        Appointment quiet = newAppointment(quietDoctor, LocalDateTime.now().plusDays(31).truncatedTo(ChronoUnit.HOURS));
+
+        long busyComplete = statementsOf(() -> as(busyDoctorUser, "DOCTOR", () -> appointmentService.completeAppointment(busy.getId())));
+        long quietComplete = statementsOf(() -> as(quietDoctorUser, "DOCTOR", () -> appointmentService.completeAppointment(quiet.getId())));
+
+        assertEquals(quietComplete, busyComplete);
+        assertEquals(AppointmentStatus.COMPLETED, appointmentRepo.findById(busy.getId()).orElseThrow().getStatus());
+    }
+
+    private long statementsOf(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // runs the call as its own authenticated request, the principal carries the role like AuthFilter's would
+    private <T> T as(User user, String role, Supplier<T> action) {
+        User principalUser = User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .roles(List.of(Role.builder().name(role).build()))
+                .build();
+        AuthUser principal = AuthUser.builder().user(principalUser).build();
+
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            return action.get();
+        } finally {
+            request.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private Appointment newAppointment(Doctor doctor, LocalDateTime start) {
+        return appointmentRepo.save(Appointment.builder()
+                .startTime(start)
+                .endTime(start.plusMinutes(60))
+                .meetingLink("https://meet.jit.si/dat-" + UUID.randomUUID())
+                .purposeOfConsultation("statement count")
+                .status(AppointmentStatus.SCHEDULED)
+                .doctor(doctor)
+                .patient(patient)
+                .build());
+    }
+
+    private Doctor newDoctor(User user) {
+        return doctorRepo.save(Doctor.builder()
+                .firstName("Doc")
+                .lastName("Count")
+                .specialization(Specialization.values()[0])
+                .licenseNumber("LIC-" + UUID.randomUUID())
+                .user(user)
+                .build());
+    }
+
+    private User newUser(String name) {
+        return userRepo.save(User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .password("not-a-real-hash")
+                .roles(new ArrayList<>())
+                .build());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.Specialization;
+import com.example.dat.exceptions.BadRequestException;
+import com.example.dat.exceptions.TooManyRequestsException;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.security.AuthUser;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * N patients race for the same doctor and start time. Whatever order the striped lock,
+ * the doctor row lock and the schedule index let them through in, exactly one booking may win.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DoctorRepo doctorRepo;
+
+    @Autowired
+    private PatientRepo patientRepo;
+
+    @Test
+    void exactlyOneOfManyConcurrentBookingsForTheSameSlotSucceeds() throws Exception {
+        Doctor doctor = doctorRepo.save(Doctor.builder()
+                .firstName("Ada")
+                .lastName("Stress")
+                .specialization(Specialization.values()[0])
+                .licenseNumber("LIC-" + UUID.randomUUID())
+                .user(newUser("doctor"))
+                .build());
+
+        List<User> patients = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User user = newUser("patient" + i);
+            patientRepo.save(Patient.builder().firstName("P" + i).lastName("Stress").user(user).build());
+            patients.add(user);
+        }
+
+        LocalDateTime slot = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (User patient : patients) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return book(patient, doctor.getId(), slot);
+                }));
+            }
+            start.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+            assertEquals(1, successes);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long booked = appointmentRepo.findAll().stream()
+                .filter(a -> a.getDoctor().getId().equals(doctor.getId()))
+                .filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED)
+                .count();
+        assertEquals(1, booked);
+    }
+
+    // runs one booking as if it came in as its own authenticated request
+    private boolean book(User patient, Long doctorId, LocalDateTime startTime) {
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+        AuthUser principal = AuthUser.builder().user(patient).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            appointmentService.bookAppointment(AppointmentDTO.builder()
+                    .doctorId(doctorId)
+                    .startTime(startTime)
+                    .purposeOfConsultation("stress test")
+                    .build());
+            return true;
+        } catch (BadRequestException | TooManyRequestsException e) {
+            assertTrue(e.getMessage() != null && !e.getMessage().isBlank());
+            return false;
+        } finally {
+            request.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private User newUser(String name) {
+        return userRepo.save(User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .password("not-a-real-hash")
+                .roles(new ArrayList<>())
+                .build());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.appointment.schedule.DoctorScheduleIndex;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.Specialization;
+import com.example.dat.exceptions.BadRequestException;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Same race as BookingConcurrencyTest, but straight into the transactional part of the booking:
+ * no stripe lock (as if every request came in on a different node) and a schedule index that never
+ * reports a conflict. Only the doctor row lock (findByIdForUpdate) and the conflict query are left
+ * to keep the slot from being booked twice.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingRowLockTest {
+
+    private static final int THREADS = 8;
+
+    // mock: hasConflict() is always false, the in-memory fast reject is out of the picture
+    @MockitoBean
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DoctorRepo doctorRepo;
+
+    @Autowired
+    private PatientRepo patientRepo;
+
+    @Test
+    void doctorRowLockAlonePreventsDoubleBooking() throws Exception {
+        AppointmentServiceImpl service = AopTestUtils.getTargetObject(appointmentService);
+
+        Doctor doctor = doctorRepo.save(Doctor.builder()
+                .firstName("Ada")
+                .lastName("RowLock")
+                .specialization(Specialization.values()[0])
+                .licenseNumber("LIC-" + UUID.randomUUID())
+                .user(newUser("doctor"))
+                .build());
+
+        List<User> patients = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User user = newUser("patient" + i);
+            patientRepo.save(Patient.builder().firstName("P" + i).lastName("RowLock").user(user).build());
+            patients.add(user);
+        }
+
+        LocalDateTime slot = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS);
+        AppointmentDTO request = AppointmentDTO.builder()
+                .doctorId(doctor.getId())
+                .startTime(slot)
+                .purposeOfConsultation("row lock test")
+                .build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (User patient : patients) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.execute(status -> service.createAppointment(request, patient.getId()));
+                        return true;
+                    } catch (BadRequestException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+            assertEquals(1, successes);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long booked = appointmentRepo.findAll().stream()
+                .filter(a -> a.getDoctor().getId().equals(doctor.getId()))
+                .filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED)
+                .count();
+        assertEquals(1, booked);
+    }
+
+    private User newUser(String name) {
+        return userRepo.save(User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .password("not-a-real-hash")
+                .roles(new ArrayList<>())
+                .build());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.dat.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void entriesExpireWithTheirOwnDeadline() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+        cache.put("short", "a", now.get() + 1_000);
+        cache.put("long", "b", now.get() + 60_000);
+
+        now.addAndGet(5_000);
+
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("long"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void alreadyExpiredValuesAreNotStored() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+        cache.put("k", "v", now.get());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+        cache.put("k", "v", now.get() + 1_000);
+
+        cache.get("k");
+        cache.get("k");
+        cache.get("missing");
+        now.addAndGet(2_000);
+        cache.get("k"); // expired -> miss + eviction
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void fullCacheDropsExpiredEntriesBeforeLiveOnes() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(3, now::get);
+        cache.put("stale", "x", now.get() + 1_000);
+        cache.put("hot1", "y", now.get() + 60_000);
+        cache.put("hot2", "z", now.get() + 60_000);
+
+        now.addAndGet(2_000);
+        cache.put("new", "n", now.get() + 60_000);
+
+        assertEquals(3, cache.size());
+        assertEquals("y", cache.get("hot1"));
+        assertEquals("z", cache.get("hot2"));
+        assertEquals("n", cache.get("new"));
+    }
+
+    @Test
+    void fullCacheOfLiveEntriesEvictsTheOneExpiringSoonest() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(3, now::get);
+        cache.put("soon", "a", now.get() + 10_000);
+        cache.put("later", "b", now.get() + 50_000);
+        cache.put("latest", "c", now.get() + 60_000);
+
+        cache.put("new", "n", now.get() + 60_000);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("soon"));
+        assertEquals("b", cache.get("later"));
+        assertEquals("c", cache.get("latest"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.config.AppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailRendererTest {
+
+    @Test
+    void warmsUpEveryTemplateAndDoesNotLeakVariablesBetweenMails() throws Exception {
+        EmailRenderer renderer = new EmailRenderer(new AppConfig().templateEngine(), new SimpleMeterRegistry(), 1);
+        renderer.warmUp();
+
+        assertTrue(renderer.templateNames().contains("patient-appointment"));
+        assertTrue(renderer.templateNames().contains("doctor-appointment"));
+
+        String first = renderer.render("password-change", Map.of("name", "Alice Example"));
+        assertTrue(first.contains("Alice Example"));
+
+        // same pooled context, the previous recipient must be gone
+        String second = renderer.render("password-change", Map.of("name", "Bob Example"));
+        assertTrue(second.contains("Bob Example"));
+        assertFalse(second.contains("Alice Example"));
+    }
+}
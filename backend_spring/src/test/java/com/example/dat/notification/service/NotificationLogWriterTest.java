@@ -0,0 +1,62 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.repo.NotificationRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class NotificationLogWriterTest {
+
+    private final NotificationRepo notificationRepo = mock(NotificationRepo.class);
+
+    private final NotificationLogWriter writer = new NotificationLogWriter(
+            notificationRepo,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new SimpleMeterRegistry(),
+            3,
+            100);
+
+    @Test
+    void buffersUntilTheBatchIsFull() {
+        writer.append(rows(2));
+        verify(notificationRepo, never()).saveAll(anyList());
+
+        writer.append(rows(1));
+        verify(notificationRepo, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void flushWritesInBatchSizedChunks() {
+        writer.append(rows(2));
+        writer.append(rows(5)); // crosses the threshold -> 7 rows written as 3 + 3 + 1
+
+        verify(notificationRepo, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void shutdownDrainsTheBuffer() {
+        writer.append(rows(2));
+        verify(notificationRepo, never()).saveAll(anyList());
+
+        writer.drain();
+        verify(notificationRepo, times(1)).saveAll(anyList());
+    }
+
+    private static List<Notification> rows(int count) {
+        return new ArrayList<>(IntStream.range(0, count)
+                .mapToObj(i -> Notification.builder().subject("s" + i).recipient("r" + i + "@example.com").build())
+                .toList());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.enums.OutboundEmailStatus;
+import com.example.dat.notification.entity.OutboundEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmtpBatchSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void deliversWholeBatch() throws Exception {
+        SmtpBatchSender sender = new SmtpBatchSender(mailSender(greenMail.getSmtp().getPort()));
+
+        Map<Long, String> failures = sender.send(List.of(
+                email(1L, "a@example.com"),
+                email(2L, "b@example.com"),
+                email(3L, "c@example.com")));
+
+        assertTrue(failures.isEmpty());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Subject 1", received[0].getSubject());
+    }
+
+    @Test
+    void reportsEveryMessageWhenServerIsDown() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        SmtpBatchSender sender = new SmtpBatchSender(mailSender(closedPort));
+
+        Map<Long, String> failures = sender.send(List.of(
+                email(1L, "a@example.com"),
+                email(2L, "b@example.com")));
+
+        assertEquals(Set.of(1L, 2L), failures.keySet());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@example.com");
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return mailSender;
+    }
+
+    private static OutboundEmail email(Long id, String recipient) {
+        return OutboundEmail.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject " + id)
+                .body("<p>Hello " + id + "</p>")
+                .status(OutboundEmailStatus.SENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dat.outbox.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainEventJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void everyEventSurvivesTheOutboxRoundTrip() throws Exception {
+        List<DomainEvent> events = List.of(
+                new AppointmentBooked(1L),
+                new AppointmentSeriesBooked(List.of(2L, 3L)),
+                new AppointmentCancelled(4L, 5L),
+                new UserRegistered(6L),
+                new PasswordResetRequested(7L),
+                new PasswordChanged(8L, true));
+
+        for (DomainEvent event : events) {
+            String json = objectMapper.writeValueAsString(event);
+            assertTrue(json.contains("\"type\":\"" + event.getClass().getSimpleName() + "\""), json);
+            assertEquals(event, objectMapper.readValue(json, DomainEvent.class));
+        }
+    }
+}
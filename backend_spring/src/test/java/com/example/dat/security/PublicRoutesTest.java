@@ -0,0 +1,66 @@
+package com.example.dat.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicRoutesTest {
+
+    private final PublicRoutes publicRoutes = new PublicRoutes();
+
+    @Test
+    void matchesPublicRoutes() {
+        assertTrue(publicRoutes.matches("/"));
+        assertTrue(publicRoutes.matches("/index.html"));
+        assertTrue(publicRoutes.matches("/api/auth"));
+        assertTrue(publicRoutes.matches("/api/auth/login"));
+        assertTrue(publicRoutes.matches("/api/doctors/12"));
+        assertTrue(publicRoutes.matches("/static/js/main.js"));
+        assertTrue(publicRoutes.matches("/main.js"));
+        assertTrue(publicRoutes.matches("/swagger-ui.html"));
+    }
+
+    @Test
+    void rejectsProtectedRoutes() {
+        assertFalse(publicRoutes.matches("/api"));
+        assertFalse(publicRoutes.matches("/api/users/me"));
+        assertFalse(publicRoutes.matches("/api/appointments"));
+        assertFalse(publicRoutes.matches("/api/authx/login"));
+        assertFalse(publicRoutes.matches("/static.js/x"));
+        assertFalse(publicRoutes.matches("/js/main.js"));
+    }
+
+    @Test
+    void agreesWithAntPathMatcher() {
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        String[] paths = {
+                "/", "/index.html", "/favicon.ico", "/error", "/api/auth/reset-password",
+                "/api/doctors", "/api/doctors/filter", "/api/patients/me", "/api/consultations/history",
+                "/assets/logo.png", "/images/a/b.png", "/app.css", "/v3/api-docs/swagger-config",
+                "/api/roles", "/actuator/health"
+        };
+
+        for (String path : paths) {
+            boolean expected = false;
+            for (String pattern : PublicRoutes.PATTERNS) {
+                expected |= antPathMatcher.match(pattern, path);
+            }
+            assertEquals(expected, publicRoutes.matches(path), path);
+        }
+    }
+
+    @Test
+    void matchesRequestsByServletPath() {
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/api/auth/login");
+        login.setServletPath("/api/auth/login");
+        MockHttpServletRequest me = new MockHttpServletRequest("GET", "/api/users/me");
+        me.setServletPath("/api/users/me");
+
+        assertTrue(publicRoutes.matches(login));
+        assertFalse(publicRoutes.matches(me));
+    }
+}
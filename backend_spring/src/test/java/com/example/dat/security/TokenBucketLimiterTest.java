@@ -0,0 +1,33 @@
+package com.example.dat.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void rejectsOnceBurstIsSpent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1"));
+        assertFalse(limiter.tryAcquire("10.0.0.1"));
+
+        // other keys have their own bucket
+        assertTrue(limiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void evictsOnlyFullBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1);
+
+        limiter.tryAcquire("busy");
+        limiter.evictIdle();
+
+        assertEquals(1, limiter.size());
+    }
+}
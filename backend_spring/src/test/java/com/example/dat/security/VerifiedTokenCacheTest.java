@@ -0,0 +1,49 @@
+package com.example.dat.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry);
+
+    @Test
+    void servesVerifiedTokensUntilTheyExpire() {
+        VerifiedToken live = token(System.currentTimeMillis() + 60_000);
+        cache.put("header.payload.sig", live);
+
+        assertSame(live, cache.get("header.payload.sig"));
+        assertNull(cache.get("other.token.sig"));
+
+        assertEquals(1.0, meterRegistry.get("jwt.cache.hits").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("jwt.cache.misses").functionCounter().count());
+    }
+
+    @Test
+    void expiredTokensAreNeverCached() {
+        cache.put("expired.token.sig", token(System.currentTimeMillis() - 1));
+
+        assertNull(cache.get("expired.token.sig"));
+        assertEquals(0.0, meterRegistry.get("jwt.cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidateDropsOnlyThatToken() {
+        cache.put("a.a.a", token(System.currentTimeMillis() + 60_000));
+        cache.put("b.b.b", token(System.currentTimeMillis() + 60_000));
+
+        cache.invalidate("a.a.a");
+
+        assertNull(cache.get("a.a.a"));
+        assertEquals("user@example.com", cache.get("b.b.b").subject());
+    }
+
+    private static VerifiedToken token(long expiresAtMillis) {
+        return new VerifiedToken("user@example.com", "jti", expiresAtMillis, 1L, 0, null, null);
+    }
+}
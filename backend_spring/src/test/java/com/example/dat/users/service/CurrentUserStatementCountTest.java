@@ -0,0 +1,216 @@
+package com.example.dat.users.service;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.appointment.service.AppointmentService;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.doctor.service.DoctorService;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.Specialization;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.patient.service.PatientService;
+import com.example.dat.role.entity.Role;
+import com.example.dat.security.AuthUser;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-endpoint statement budgets for the calls that used to start with getCurrentUser().
+ * The caller's id and roles come from the principal, so booking and listing never read the
+ * caller's user row, and the profile endpoints read it once, for the DTO.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CurrentUserStatementCountTest {
+
+    // Hibernate statistics are global, keep the scheduled jobs (outbox relay, index sync ...) from adding to them
+    @MockitoBean
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DoctorRepo doctorRepo;
+
+    @Autowired
+    private PatientRepo patientRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User doctorUser;
+    private User patientUser;
+    private Doctor doctor;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        doctorUser = newUser("doctor");
+        patientUser = newUser("patient");
+        doctor = doctorRepo.save(Doctor.builder()
+                .firstName("Doc")
+                .lastName("Count")
+                .specialization(Specialization.values()[0])
+                .licenseNumber("LIC-" + UUID.randomUUID())
+                .user(doctorUser)
+                .build());
+        patient = patientRepo.save(Patient.builder().firstName("Pat").lastName("Count").user(patientUser).build());
+    }
+
+    @Test
+    void bookingNeverReadsTheCallersUser() {
+        LocalDateTime day = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.DAYS);
+        book(day.withHour(9));
+
+        // doctor row lock, patient, conflict query, appointment insert, outbox insert
+        long statements = statementsOf(() -> book(day.withHour(14)));
+        assertTrue(statements <= 5, "booking ran " + statements + " statements");
+        assertEquals(0, userLoads());
+
+        // the same again with a much fuller calendar
+        for (int i = 1; i <= 20; i++) {
+            newAppointment(day.plusDays(i).withHour(9));
+        }
+        assertEquals(statements, statementsOf(() -> book(day.withHour(17))));
+    }
+
+    @Test
+    void listingReadsNoMoreThanTheProfileIdAndOnePage() {
+        LocalDateTime start = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < 10; i++) {
+            newAppointment(start.plusHours(2L * i));
+        }
+
+        // profile id, the page, the roles of the two participants' users
+        long doctorListing = statementsOf(() -> as(doctorUser, "DOCTOR",
+                () -> appointmentService.getMyAppointments(null, null, null, null, 10)));
+        assertTrue(doctorListing <= 4, "doctor listing ran " + doctorListing + " statements");
+
+        long patientListing = statementsOf(() -> as(patientUser, "PATIENT",
+                () -> appointmentService.getMyAppointments(null, null, null, null, 10)));
+        assertTrue(patientListing <= 4, "patient listing ran " + patientListing + " statements");
+    }
+
+    @Test
+    void doctorProfileReadsTheUserOnce() {
+        // doctor row, its user, the user's roles
+        long statements = statementsOf(() -> as(doctorUser, "DOCTOR", () -> doctorService.getDoctorProfile()));
+        assertTrue(statements <= 3, "doctor profile ran " + statements + " statements");
+        assertEquals(1, userLoads());
+    }
+
+    @Test
+    void patientProfileReadsTheUserOnce() {
+        // patient row, its user, the user's roles
+        long statements = statementsOf(() -> as(patientUser, "PATIENT", () -> patientService.getPatientProfile()));
+        assertTrue(statements <= 3, "patient profile ran " + statements + " statements");
+        assertEquals(1, userLoads());
+    }
+
+    private void book(LocalDateTime startTime) {
+        as(patientUser, "PATIENT", () -> appointmentService.bookAppointment(AppointmentDTO.builder()
+                .doctorId(doctor.getId())
+                .startTime(startTime)
+                .purposeOfConsultation("statement count")
+                .build()));
+    }
+
+    private long statementsOf(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // since the last statementsOf()
+    private long userLoads() {
+        return statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+    }
+
+    // runs the call as its own authenticated request, the principal carries the role like AuthFilter's would
+    private <T> T as(User user, String role, Supplier<T> action) {
+        User principalUser = User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .roles(List.of(Role.builder().name(role).build()))
+                .build();
+        AuthUser principal = AuthUser.builder().user(principalUser).build();
+
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            return action.get();
+        } finally {
+            request.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void newAppointment(LocalDateTime start) {
+        appointmentRepo.save(Appointment.builder()
+                .startTime(start)
+                .endTime(start.plusMinutes(60))
+                .meetingLink("https://meet.jit.si/dat-" + UUID.randomUUID())
+                .purposeOfConsultation("statement count")
+                .status(AppointmentStatus.SCHEDULED)
+                .doctor(doctor)
+                .patient(patient)
+                .build());
+    }
+
+    private User newUser(String name) {
+        return userRepo.save(User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .password("not-a-real-hash")
+                .roles(new ArrayList<>())
+                .build());
+    }
+}
@@ -6,6 +6,7 @@ import { apiService } from '../../services/api';
 const DoctorAppointments = () => {
 
     const [appointments, setAppointments] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [error, setError] = useState('');
 
     useEffect(() => {
@@ -14,13 +15,15 @@ const DoctorAppointments = () => {
 
 
 
-    const fetchAppointments = async () => {
+    const fetchAppointments = async (cursor = null) => {
         try {
 
-            const response = await apiService.getMyAppointments();
+            const response = await apiService.getMyAppointments(cursor ? { cursor } : {});
 
             if (response.data.statusCode === 200) {
-                setAppointments(response.data.data);
+                // a cursor means "append the next page", otherwise start over
+                setAppointments(prev => cursor ? [...prev, ...response.data.data] : response.data.data);
+                setNextCursor(response.data.nextCursor || null);
             }
 
         } catch (error) {
@@ -49,6 +52,7 @@ const DoctorAppointments = () => {
             'SCHEDULED': { class: 'status-scheduled', text: 'Scheduled' },
             'COMPLETED': { class: 'status-completed', text: 'Completed' },
             'CANCELLED': { class: 'status-cancelled', text: 'Cancelled' },
+            'NO_SHOW': { class: 'status-cancelled', text: 'No Show' },
             'IN_PROGRESS': { class: 'status-in-progress', text: 'In Progress' }
         };
 
@@ -217,6 +221,14 @@ const DoctorAppointments = () => {
                         ))}
                     </div>
                 )}
+
+                {nextCursor && (
+                    <div className="load-more">
+                        <button onClick={() => fetchAppointments(nextCursor)} className="btn btn-secondary">
+                            Load More
+                        </button>
+                    </div>
+                )}
             </div>
         </div>
     );
@@ -39,6 +39,14 @@ export const apiService = {
   },
 
   logout() {
+    // revoke the token server-side, local cleanup doesn't wait for it
+    const token = localStorage.getItem("token");
+    if (token) {
+      api
+        .post("/auth/logout", null, { headers: { Authorization: `Bearer ${token}` } })
+        .catch(() => {});
+    }
+
     localStorage.removeItem("token");
     localStorage.removeItem("roles");
     localStorage.removeItem("user");
@@ -165,8 +173,13 @@ export const apiService = {
     return api.post("/appointments", body);
   },
 
-  getMyAppointments() {
-    return api.get("/appointments");
+  // params: { status, from, to, cursor, size } - response carries nextCursor while more pages exist
+  getMyAppointments(params = {}) {
+    return api.get("/appointments", { params });
+  },
+
+  countMyAppointments(params = {}) {
+    return api.get("/appointments/count", { params });
   },
 
   cancelAppointment(id) {